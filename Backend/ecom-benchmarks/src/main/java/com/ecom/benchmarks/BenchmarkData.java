@@ -0,0 +1,51 @@
+package com.ecom.benchmarks;
+
+import com.ecom.model.Product;
+import com.ecom.model.User;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        List<User> sellers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User seller = new User("seller" + i + "@am.students.amrita.edu", "secret");
+            seller.setId((long) i + 1);
+            seller.setName("Seller " + i);
+            sellers.add(seller);
+        }
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("Engineering drawing kit " + i,
+                    "Mini drafter, set squares and a compass, used for one semester",
+                    new BigDecimal("350.00").add(BigDecimal.valueOf(i % 100)),
+                    sellers.get(i % sellers.size()));
+            product.setId((long) i + 1);
+            if (i % 3 != 0) {
+                product.setImagePath("product_" + (i + 1) + "_image.jpg");
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    static User user() {
+        User user = new User("student@am.students.amrita.edu", "secret");
+        user.setId(42L);
+        user.setName("Student");
+        user.setProgramme("B.Tech");
+        user.setBranch("CSE");
+        user.setYear(3);
+        user.setSemester(5);
+        user.setPhoneNo("9999999999");
+        user.setProfileImagePath("user_42_image.jpg");
+        return user;
+    }
+}
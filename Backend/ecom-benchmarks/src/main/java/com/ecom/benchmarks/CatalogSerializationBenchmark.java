@@ -0,0 +1,54 @@
+package com.ecom.benchmarks;
+
+import com.ecom.model.ProductSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// JSON serialization of whole catalog pages, to a byte[] and streamed
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int items;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<ProductSummary> catalog;
+
+    @Setup
+    public void setUp() {
+        catalog = BenchmarkData.products(items).stream()
+                .map(ProductSummary::of)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] toByteArray() throws Exception {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public void toStream() throws Exception {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), catalog);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecom.benchmarks;
+
+import com.ecom.model.Product;
+import com.ecom.model.ProductSummary;
+import com.ecom.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Per-row HashMap assembly as done in ProductController/UserController,
+// against the ProductSummary projection, both serialized to JSON bytes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseAssemblyBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<Product> products;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(1000);
+        user = BenchmarkData.user();
+    }
+
+    @Benchmark
+    public byte[] productListAsHashMaps() throws Exception {
+        List<Map<String, Object>> response = products.stream().map(product -> {
+            Map<String, Object> productMap = new HashMap<>();
+            productMap.put("id", product.getId());
+            productMap.put("name", product.getName());
+            productMap.put("description", product.getDescription());
+            productMap.put("price", product.getPrice());
+            productMap.put("sellerId", product.getSeller().getId());
+            productMap.put("sellerName", product.getSeller().getName());
+            productMap.put("hasImage", product.hasImage());
+            return productMap;
+        }).collect(Collectors.toList());
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] productListAsSummaries() throws Exception {
+        List<ProductSummary> response = products.stream()
+                .map(ProductSummary::of)
+                .collect(Collectors.toList());
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] userProfileAsHashMap() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", user.getId());
+        response.put("email", user.getEmail());
+        response.put("name", user.getName());
+        response.put("programme", user.getProgramme());
+        response.put("branch", user.getBranch());
+        response.put("year", user.getYear());
+        response.put("semester", user.getSemester());
+        response.put("phoneNo", user.getPhoneNo());
+        response.put("hasProfileImage", user.hasProfileImage());
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
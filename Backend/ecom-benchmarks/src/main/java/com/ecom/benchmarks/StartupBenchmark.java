@@ -0,0 +1,83 @@
+package com.ecom.benchmarks;
+
+import com.ecom.EcomApplication;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cold start of the whole application against an existing schema, comparing
+// Hibernate's ddl-auto=update introspection with Flyway + ddl-auto=validate.
+// Every fork is a fresh JVM timing exactly one start. Defaults to in-memory H2;
+// point it at MySQL with -p url=jdbc:mysql://... -p username=... -p password=...
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"update", "validate"})
+    private String schemaManagement;
+
+    @Param({"jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE"})
+    private String url;
+
+    @Param({"sa"})
+    private String username;
+
+    @Param({""})
+    private String password;
+
+    // The schema exists before the timed start in both modes, as it does in production
+    @Setup
+    public void setUp() {
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .locations("classpath:db/migration/" + (isH2() ? "h2" : "mysql"))
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+    }
+
+    @Benchmark
+    public void start() {
+        // Command-line arguments, so they win over the packaged application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--spring.jpa.hibernate.ddl-auto=" + schemaManagement,
+                "--spring.flyway.enabled=" + schemaManagement.equals("validate"),
+                "--server.port=0",
+                "--file.storage.location=target/startup-uploads",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=warn"));
+        if (isH2()) {
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EcomApplication.class)
+                .run(args.toArray(new String[0]));
+        context.close();
+    }
+
+    private boolean isH2() {
+        return url.startsWith("jdbc:h2:");
+    }
+}
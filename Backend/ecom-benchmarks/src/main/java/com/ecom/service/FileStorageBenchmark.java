@@ -0,0 +1,107 @@
+package com.ecom.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Store/load round trips through FileStorageService for typical upload sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileStorageBenchmark {
+
+    @Param({"16384", "262144", "4194304"})
+    private int fileSize;
+
+    private Path root;
+
+    private FileStorageService fileStorageService;
+
+    private ImageVariantService imageVariantService;
+
+    private File upload;
+
+    private File freshUpload;
+
+    private String storedName;
+
+    private final WritableByteChannel sink = Channels.newChannel(OutputStream.nullOutputStream());
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("ecom-bench");
+        imageVariantService = new ImageVariantService(1, 1024);
+        fileStorageService = new DiskFileStorageService(root.toString(), imageVariantService,
+                new InMemoryBlobReferences(), new SimpleMeterRegistry());
+
+        // Random bytes: no image reader accepts them, so variant jobs end right after the header probe
+        upload = writeRandom(root.resolve("upload.bin"), 42);
+        storedName = fileStorageService.storeProductImage(upload);
+        // Content that is never kept, so every store writes a new blob and every delete removes it
+        freshUpload = writeRandom(root.resolve("fresh.bin"), 43);
+    }
+
+    private File writeRandom(Path path, long seed) throws IOException {
+        byte[] content = new byte[fileSize];
+        new Random(seed).nextBytes(content);
+        Files.write(path, content);
+        return path.toFile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        imageVariantService.shutdown();
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public String storeAndDelete() {
+        String fileName = fileStorageService.storeProductImage(freshUpload);
+        fileStorageService.deleteProductImage(fileName);
+        return fileName;
+    }
+
+    // Re-upload of stored content: hashed and counted, but nothing new is kept
+    @Benchmark
+    public String storeDuplicateAndDelete() {
+        String fileName = fileStorageService.storeProductImage(upload);
+        fileStorageService.deleteProductImage(fileName);
+        return fileName;
+    }
+
+    @Benchmark
+    public byte[] loadIntoHeap() {
+        return fileStorageService.loadProductImage(storedName);
+    }
+
+    @Benchmark
+    public long resolveAndTransfer() throws IOException {
+        StoredFile file = fileStorageService.resolveProductImage(storedName);
+        file.transferTo(0, file.getLength(), sink);
+        return file.getLength();
+    }
+}
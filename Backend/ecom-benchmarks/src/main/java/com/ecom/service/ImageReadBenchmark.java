@@ -0,0 +1,104 @@
+package com.ecom.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Serving many small images: one file per image versus records in memory-mapped segments
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ImageReadBenchmark {
+
+    @Param({"files", "packed"})
+    private String backend;
+
+    @Param({"20000"})
+    private int imageCount;
+
+    @Param({"8192"})
+    private int imageSize;
+
+    private Path root;
+
+    private ImageVariantService imageVariantService;
+
+    private FileStorageService fileStorageService;
+
+    private String[] storedNames;
+
+    private final WritableByteChannel sink = Channels.newChannel(OutputStream.nullOutputStream());
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("ecom-bench");
+        // No workers pick up variant jobs; only originals are read
+        imageVariantService = new ImageVariantService(1, 1);
+        fileStorageService = "packed".equals(backend)
+                ? new PackedFileStorageService(root.toString(), 256 * 1024 * 1024, 0.5, imageVariantService,
+                        new InMemoryBlobReferences(), new SimpleMeterRegistry())
+                : new DiskFileStorageService(root.toString(), imageVariantService,
+                        new InMemoryBlobReferences(), new SimpleMeterRegistry());
+
+        Path upload = root.resolve("upload.bin");
+        byte[] content = new byte[imageSize];
+        Random random = new Random(42);
+        storedNames = new String[imageCount];
+        for (int i = 0; i < imageCount; i++) {
+            random.nextBytes(content);
+            Files.write(upload, content);
+            storedNames[i] = fileStorageService.storeProductImage(upload.toFile());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        imageVariantService.shutdown();
+        if (fileStorageService instanceof PackedFileStorageService packed) {
+            packed.close();
+        }
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public long resolveAndTransfer() throws IOException {
+        StoredFile file = fileStorageService.resolveProductImage(randomName());
+        file.transferTo(0, file.getLength(), sink);
+        return file.getLength();
+    }
+
+    @Benchmark
+    public byte[] loadIntoHeap() {
+        return fileStorageService.loadProductImage(randomName());
+    }
+
+    private String randomName() {
+        return storedNames[ThreadLocalRandom.current().nextInt(storedNames.length)];
+    }
+}
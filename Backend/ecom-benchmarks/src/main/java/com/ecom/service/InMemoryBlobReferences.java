@@ -0,0 +1,30 @@
+package com.ecom.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts kept in memory; the image_blobs table is not part of what the storage benchmarks measure
+class InMemoryBlobReferences implements BlobReferenceStore {
+
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public void addReference(String hash, long byteSize) {
+        counts.merge(hash, 1, Integer::sum);
+    }
+
+    @Override
+    public boolean removeReference(String hash) {
+        return counts.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null) == null;
+    }
+
+    @Override
+    public int referenceCount(String hash) {
+        return counts.getOrDefault(hash, 0);
+    }
+
+    @Override
+    public boolean clearReferences(String hash, int expectedCount) {
+        return expectedCount == 0 ? !counts.containsKey(hash) : counts.remove(hash, expectedCount);
+    }
+}
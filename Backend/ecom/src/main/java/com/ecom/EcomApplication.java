@@ -2,8 +2,13 @@ package com.ecom;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+// Class proxies: the storage backends keep their @Async/@Scheduled jobs off the FileStorageService interface
+@EnableAsync(proxyTargetClass = true)
+@EnableScheduling
 public class EcomApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,65 @@
+package com.ecom.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Concurrency limit for one class of blocking resource. Permits are re-entrant
+// per thread, so a transaction that calls several repositories holds one
+// permit, the same way it holds one connection.
+public class Bulkhead {
+
+    private final String name;
+
+    private final int maxConcurrent;
+
+    private final long maxWaitMillis;
+
+    private final Semaphore permits;
+
+    private final ThreadLocal<Boolean> held = new ThreadLocal<>();
+
+    public Bulkhead(String name, int maxConcurrent, long maxWaitMillis) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    // Returns false when the thread already holds a permit; release() must then not be called
+    boolean acquire() {
+        if (held.get() != null) {
+            return false;
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new BulkheadFullException(name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name);
+        }
+        held.set(Boolean.TRUE);
+        return true;
+    }
+
+    void release() {
+        held.remove();
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecom.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Puts request-thread database and disk work behind their own bulkheads.
+// Ordered outside the transaction interceptor so a permit is held before a
+// connection is taken. Background jobs have their own bounded pools and pass
+// straight through.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "bulkhead", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadAspect {
+
+    @Autowired
+    @Qualifier("dbBulkhead")
+    private Bulkhead dbBulkhead;
+
+    @Autowired
+    @Qualifier("diskBulkhead")
+    private Bulkhead diskBulkhead;
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))"
+            + " || (within(com.ecom.service..*) && @annotation(org.springframework.transaction.annotation.Transactional))")
+    public Object limitDatabase(ProceedingJoinPoint joinPoint) throws Throwable {
+        return limit(dbBulkhead, joinPoint);
+    }
+
+    @Around("within(com.ecom.service.FileStorageService+) && execution(public * *(..))")
+    public Object limitDisk(ProceedingJoinPoint joinPoint) throws Throwable {
+        return limit(diskBulkhead, joinPoint);
+    }
+
+    private static Object limit(Bulkhead bulkhead, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (RequestContextHolder.getRequestAttributes() == null || !bulkhead.acquire()) {
+            return joinPoint.proceed();
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            bulkhead.release();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecom.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BulkheadConfig {
+
+    // One permit per pooled connection, so waiting happens here instead of inside Hikari
+    @Bean
+    public Bulkhead dbBulkhead(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                               @Value("${bulkhead.db.max-wait-ms:2000}") long maxWaitMillis,
+                               MeterRegistry meterRegistry) {
+        return register(new Bulkhead("db", poolSize, maxWaitMillis), meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead diskBulkhead(@Value("${bulkhead.disk.max-concurrent:16}") int maxConcurrent,
+                                 @Value("${bulkhead.disk.max-wait-ms:1000}") long maxWaitMillis,
+                                 MeterRegistry meterRegistry) {
+        return register(new Bulkhead("disk", maxConcurrent, maxWaitMillis), meterRegistry);
+    }
+
+    private static Bulkhead register(Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        Gauge.builder("bulkhead.available", bulkhead, Bulkhead::getAvailablePermits)
+                .description("Free permits")
+                .tag("bulkhead", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.waiting", bulkhead, Bulkhead::getQueueLength)
+                .description("Threads waiting for a permit")
+                .tag("bulkhead", bulkhead.getName())
+                .register(meterRegistry);
+        return bulkhead;
+    }
+}
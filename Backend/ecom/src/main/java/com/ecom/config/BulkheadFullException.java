@@ -0,0 +1,15 @@
+package com.ecom.config;
+
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkhead;
+
+    public BulkheadFullException(String bulkhead) {
+        super("Too many concurrent " + bulkhead + " operations, try again shortly");
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+}
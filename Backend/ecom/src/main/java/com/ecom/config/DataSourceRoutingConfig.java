@@ -0,0 +1,79 @@
+package com.ecom.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Enabled with datasource.replicas.enabled and the replica JDBC URLs in
+// datasource.replicas.urls (comma-separated, or urls[0], urls[1]... for URLs
+// that contain commas). The application
+// DataSource becomes a lazy proxy over the primary pool: the physical connection is
+// only chosen at the first statement, after the transaction has marked it read-only,
+// and read-only connections come from the replica pool.
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaPool replicaPool(HikariDataSource primaryDataSource,
+                                   DataSourceProperties properties,
+                                   Environment environment,
+                                   @Value("${datasource.replicas.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int maximumPoolSize,
+                                   @Value("${datasource.replicas.connection-timeout-ms:1000}") long connectionTimeoutMillis,
+                                   @Value("${datasource.replicas.health-check-ms:5000}") long healthCheckMillis,
+                                   MeterRegistry meterRegistry) {
+        List<String> urls = Binder.get(environment)
+                .bind("datasource.replicas.urls", Bindable.listOf(String.class))
+                .orElse(List.of());
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("datasource.replicas.enabled is set but datasource.replicas.urls is empty");
+        }
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(connectionTimeoutMillis);
+            replica.setReadOnly(true);
+            // A replica that is down at startup joins the rotation once its health check passes
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        int validationTimeoutSeconds = (int) Math.max(1, connectionTimeoutMillis / 1000);
+        return new ReplicaPool(primaryDataSource, replicas, healthCheckMillis, validationTimeoutSeconds, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaPool);
+        return dataSource;
+    }
+}
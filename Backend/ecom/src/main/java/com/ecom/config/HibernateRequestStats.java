@@ -0,0 +1,49 @@
+package com.ecom.config;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts SQL statements and entity loads for the request running on the
+// current thread. Threads outside a request (no begin() call) are not counted,
+// so background work costs a single ThreadLocal lookup per statement.
+final class HibernateRequestStats implements StatementInspector, PostLoadEventListener {
+
+    static final HibernateRequestStats INSTANCE = new HibernateRequestStats();
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+
+    private static final ThreadLocal<long[]> COUNTS = new ThreadLocal<>();
+
+    private HibernateRequestStats() {
+    }
+
+    static void begin() {
+        COUNTS.set(new long[2]);
+    }
+
+    // Returns {statements, entityLoads} and stops counting on this thread
+    static long[] end() {
+        long[] counts = COUNTS.get();
+        COUNTS.remove();
+        return counts;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        long[] counts = COUNTS.get();
+        if (counts != null) {
+            counts[STATEMENTS]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        long[] counts = COUNTS.get();
+        if (counts != null) {
+            counts[ENTITY_LOADS]++;
+        }
+    }
+}
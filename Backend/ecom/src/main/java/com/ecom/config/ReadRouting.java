@@ -0,0 +1,41 @@
+package com.ecom.config;
+
+import java.util.function.Supplier;
+
+// Per-thread permission for read-only transactions to use a replica. Reads go to
+// the primary unless ReadYourWritesFilter (or code carrying its decision to another
+// thread) allows otherwise, so background jobs and write paths never see replica lag.
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isReplicaAllowed() {
+        return Boolean.TRUE.equals(REPLICA_ALLOWED.get());
+    }
+
+    public static void setReplicaAllowed(boolean allowed) {
+        REPLICA_ALLOWED.set(allowed);
+    }
+
+    public static void clear() {
+        REPLICA_ALLOWED.remove();
+    }
+
+    // For reads whose result outlives replica lag, such as cache fills
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = REPLICA_ALLOWED.get();
+        REPLICA_ALLOWED.set(false);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                REPLICA_ALLOWED.remove();
+            } else {
+                REPLICA_ALLOWED.set(previous);
+            }
+        }
+    }
+}
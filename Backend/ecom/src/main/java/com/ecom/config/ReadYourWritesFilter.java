@@ -0,0 +1,77 @@
+package com.ecom.config;
+
+import com.ecom.model.SessionUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Decides per request whether read-only transactions may use a replica: only for
+// GET/HEAD, and not for a user who completed a write within the replication window,
+// so people always see their own changes. Runs after the security filter chain.
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+
+    // userId -> System.nanoTime() of the last successful write request
+    private final Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(@Value("${datasource.replicas.read-your-writes-ms:5000}") long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long userId = currentUserId();
+        boolean safe = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        ReadRouting.setReplicaAllowed(safe && !wroteRecently(userId));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+            if (!safe && userId != null && response.getStatus() < 400) {
+                recordWrite(userId);
+            }
+        }
+    }
+
+    private boolean wroteRecently(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(userId);
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    private void recordWrite(Long userId) {
+        long now = System.nanoTime();
+        lastWrites.put(userId, now);
+        if (lastWrites.size() > PURGE_THRESHOLD) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof SessionUser sessionUser) {
+            return sessionUser.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecom.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read-only connections handed out round-robin across healthy replicas. A replica
+// that fails to give a connection is taken out of rotation until the background
+// health check finds it valid again; with none healthy, reads fall back to the primary.
+public class ReplicaPool extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final int validationTimeoutSeconds;
+
+    private final ScheduledExecutorService healthChecker;
+
+    private static class Replica {
+        final HikariDataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaPool(DataSource primary, List<HikariDataSource> replicaDataSources,
+                       long healthCheckMillis, int validationTimeoutSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicaDataSources.stream().map(Replica::new).toList();
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica is in the read rotation")
+                    .tag("replica", replica.dataSource.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadRouting.isReplicaAllowed()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    markDown(replica, e);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    // Replica pools only know the configured credentials, so other ones always go to the primary
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean valid;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                valid = connection.isValid(validationTimeoutSeconds);
+            } catch (SQLException e) {
+                valid = false;
+            }
+            if (valid && !replica.healthy) {
+                log.info("Replica {} is back in the read rotation", replica.dataSource.getPoolName());
+            } else if (!valid && replica.healthy) {
+                log.warn("Replica {} failed its health check", replica.dataSource.getPoolName());
+            }
+            replica.healthy = valid;
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Taking replica {} out of the read rotation: {}", replica.dataSource.getPoolName(), cause.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+}
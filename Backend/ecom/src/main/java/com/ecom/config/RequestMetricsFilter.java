@@ -0,0 +1,61 @@
+package com.ecom.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Records how many statements and entity loads each request needed, tagged
+// with the same method/uri pair as http.server.requests so they line up.
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Meter lookups are cached per route so the request path only does a map get
+    private final Map<String, DistributionSummary[]> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HibernateRequestStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long[] counts = HibernateRequestStats.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                DistributionSummary[] route = summaries.computeIfAbsent(request.getMethod() + " " + pattern,
+                        key -> register(request.getMethod(), pattern.toString()));
+                route[0].record(counts[0]);
+                route[1].record(counts[1]);
+            }
+        }
+    }
+
+    private DistributionSummary[] register(String method, String uri) {
+        return new DistributionSummary[] {
+            DistributionSummary.builder("hibernate.request.statements")
+                    .description("SQL statements prepared while handling a request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry),
+            DistributionSummary.builder("hibernate.request.entity.loads")
+                    .description("Entities loaded while handling a request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecom.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Spans recorded for one request. Only the request thread writes to it; once
+// finished it is published to the slow-request buffer and never changes again.
+public class RequestTrace {
+
+    public static class Span {
+        private final String layer;
+        private final String name;
+        private final int depth;
+        private final long offsetNanos;
+        private long durationNanos;
+        private String error;
+
+        Span(String layer, String name, int depth, long offsetNanos) {
+            this.layer = layer;
+            this.name = name;
+            this.depth = depth;
+            this.offsetNanos = offsetNanos;
+        }
+
+        public String getLayer() {
+            return layer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final int maxSpans;
+    private final List<Span> spans = new ArrayList<>();
+    private int depth;
+    private int droppedSpans;
+    private String endpoint;
+    private int status;
+    private long durationNanos;
+
+    RequestTrace(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+
+    // Returns null once the span budget is spent; depth is still tracked so nesting stays right
+    Span enter(String layer, String name) {
+        int spanDepth = depth++;
+        if (spans.size() >= maxSpans) {
+            droppedSpans++;
+            return null;
+        }
+        Span span = new Span(layer, name, spanDepth, System.nanoTime() - startNanos);
+        spans.add(span);
+        return span;
+    }
+
+    void exit(Span span, long startNanosOfSpan, Throwable error) {
+        depth--;
+        if (span != null) {
+            span.durationNanos = System.nanoTime() - startNanosOfSpan;
+            if (error != null) {
+                span.error = error.getClass().getSimpleName();
+            }
+        }
+    }
+
+    void finish(String endpoint, int status) {
+        this.endpoint = endpoint;
+        this.status = status;
+        this.durationNanos = System.nanoTime() - startNanos;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecom.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Holds the trace of the request on the current thread and keeps the slowest
+// finished traces per endpoint. Each endpoint has a fixed array of slots; a new
+// trace replaces the fastest slot with a CAS, so request threads never block.
+@Component
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true")
+public class RequestTracer {
+
+    private final ThreadLocal<RequestTrace> current = new ThreadLocal<>();
+
+    private final Map<String, AtomicReferenceArray<RequestTrace>> slowest = new ConcurrentHashMap<>();
+
+    @Value("${tracing.slowest-per-endpoint:10}")
+    private int slowestPerEndpoint;
+
+    @Value("${tracing.max-spans:256}")
+    private int maxSpans;
+
+    void begin() {
+        current.set(new RequestTrace(maxSpans));
+    }
+
+    RequestTrace current() {
+        return current.get();
+    }
+
+    void finish(String endpoint, int status) {
+        RequestTrace trace = current.get();
+        current.remove();
+        if (trace == null || endpoint == null) {
+            return;
+        }
+        trace.finish(endpoint, status);
+        offer(trace);
+    }
+
+    private void offer(RequestTrace trace) {
+        AtomicReferenceArray<RequestTrace> slots = slowest.get(trace.getEndpoint());
+        if (slots == null) {
+            slots = slowest.computeIfAbsent(trace.getEndpoint(), key -> new AtomicReferenceArray<>(slowestPerEndpoint));
+        }
+
+        while (true) {
+            int victim = -1;
+            RequestTrace victimTrace = null;
+            for (int i = 0; i < slots.length(); i++) {
+                RequestTrace slot = slots.get(i);
+                if (slot == null) {
+                    victim = i;
+                    victimTrace = null;
+                    break;
+                }
+                if (victimTrace == null || slot.getDurationNanos() < victimTrace.getDurationNanos()) {
+                    victim = i;
+                    victimTrace = slot;
+                }
+            }
+            if (victim < 0 || (victimTrace != null && victimTrace.getDurationNanos() >= trace.getDurationNanos())) {
+                return;
+            }
+            if (slots.compareAndSet(victim, victimTrace, trace)) {
+                return;
+            }
+        }
+    }
+
+    // Slowest first within each endpoint
+    public Map<String, List<RequestTrace>> getSlowestTraces() {
+        Map<String, List<RequestTrace>> result = new TreeMap<>();
+        slowest.forEach((endpoint, slots) -> {
+            List<RequestTrace> traces = new ArrayList<>();
+            for (int i = 0; i < slots.length(); i++) {
+                RequestTrace trace = slots.get(i);
+                if (trace != null) {
+                    traces.add(trace);
+                }
+            }
+            traces.sort(Comparator.comparingLong(RequestTrace::getDurationNanos).reversed());
+            result.put(endpoint, traces);
+        });
+        return result;
+    }
+
+    public void clear() {
+        slowest.clear();
+    }
+}
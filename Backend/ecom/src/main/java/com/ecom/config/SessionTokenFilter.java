@@ -0,0 +1,43 @@
+package com.ecom.config;
+
+import com.ecom.model.SessionUser;
+import com.ecom.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Authenticates "Authorization: Bearer <token>" requests from the token alone.
+// A missing or invalid token leaves the request anonymous; the authorization
+// rules in SecurityConfig decide whether that is enough.
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+
+    public SessionTokenFilter(SessionTokenService sessionTokenService) {
+        this.sessionTokenService = sessionTokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            SessionUser sessionUser = sessionTokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+            if (sessionUser != null) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(sessionUser, null, List.of()));
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
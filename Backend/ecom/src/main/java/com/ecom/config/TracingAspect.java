@@ -0,0 +1,77 @@
+package com.ecom.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Records a span per controller, service, repository and file-storage call.
+// Ordered outermost so service spans include transaction commit time. With
+// tracing disabled this bean does not exist and no proxies are created.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true")
+public class TracingAspect {
+
+    @Autowired
+    private RequestTracer requestTracer;
+
+    @Around("within(com.ecom.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("controller", joinPoint);
+    }
+
+    @Around("within(com.ecom.service..*) && !within(com.ecom.service.FileStorageService+) && !within(com.ecom.service.ImageVariantService)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("service", joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("repository", joinPoint);
+    }
+
+    @Around("within(com.ecom.service.FileStorageService+) || within(com.ecom.service.ImageVariantService)")
+    public Object traceFileSystem(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("file", joinPoint);
+    }
+
+    private Object trace(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTrace trace = requestTracer.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+
+        RequestTrace.Span span = trace.enter(layer, spanName(joinPoint));
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            trace.exit(span, start, error);
+        }
+    }
+
+    private static String spanName(ProceedingJoinPoint joinPoint) {
+        // Repository proxies report the Spring Data interface, the target type is more useful
+        Class<?> type = joinPoint.getSignature().getDeclaringType();
+        Object target = joinPoint.getTarget();
+        if (target != null && type.isInterface()) {
+            for (Class<?> candidate : target.getClass().getInterfaces()) {
+                if (candidate.getName().startsWith("com.ecom.")) {
+                    type = candidate;
+                    break;
+                }
+            }
+        }
+        return type.getSimpleName() + "." + joinPoint.getSignature().getName();
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecom.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+@Component
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true")
+public class TracingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RequestTracer requestTracer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        requestTracer.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Requests that matched no handler have no pattern and are not kept
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            requestTracer.finish(pattern != null ? request.getMethod() + " " + pattern : null, response.getStatus());
+        }
+    }
+}
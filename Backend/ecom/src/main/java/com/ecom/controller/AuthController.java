@@ -1,10 +1,15 @@
 package com.ecom.controller;
 
+import com.ecom.model.SessionUser;
 import com.ecom.model.User;
+import com.ecom.service.MailQueueFullException;
+import com.ecom.service.SessionTokenService;
 import com.ecom.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -22,6 +27,9 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
         String email = loginRequest.get("email");
@@ -38,9 +46,19 @@ public class AuthController {
         response.put("id", user.getId());
         response.put("email", user.getEmail());
         response.put("name", user.getName());
+        response.put("token", sessionTokenService.issue(user));
         
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@AuthenticationPrincipal SessionUser sessionUser) {
+        sessionTokenService.revoke(sessionUser);
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Logged out successfully");
+        return ResponseEntity.ok(response);
+    }
     
     @PostMapping("/signup/initiate")
     public ResponseEntity<?> initiateSignup(@RequestBody Map<String, String> request) {
@@ -56,6 +74,11 @@ public class AuthController {
         } catch (IllegalArgumentException e) {
             response.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(response);
+        } catch (MailQueueFullException e) {
+            response.put("message", "We are sending a lot of emails right now. Please try again in a minute.");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(response);
         } catch (Exception e) {
             response.put("message", "Failed to send OTP. Please try again later.");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -95,6 +118,7 @@ public class AuthController {
             response.put("id", user.getId());
             response.put("email", user.getEmail());
             response.put("name", user.getName());
+            response.put("token", sessionTokenService.issue(user));
             response.put("message", "Account created successfully");
             
             return ResponseEntity.ok(response);
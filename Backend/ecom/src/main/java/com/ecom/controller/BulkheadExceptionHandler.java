@@ -0,0 +1,26 @@
+package com.ecom.controller;
+
+import com.ecom.config.BulkheadFullException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// A saturated resource fails only the requests that need it, with a retry hint
+@RestControllerAdvice
+public class BulkheadExceptionHandler {
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<?> handleBulkheadFull(BulkheadFullException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "The server is busy right now. Please try again in a moment.");
+        response.put("resource", e.getBulkhead());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecom.controller;
+
+import com.ecom.config.RequestTrace;
+import com.ecom.config.RequestTracer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Slow-request traces, only answered for requests from the local machine
+@RestController
+@RequestMapping("/api/debug")
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true")
+public class DebugController {
+
+    @Autowired
+    private RequestTracer requestTracer;
+
+    @GetMapping("/traces")
+    public ResponseEntity<?> getSlowestTraces(HttpServletRequest request) {
+        if (!isLocal(request)) {
+            return forbidden();
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        requestTracer.getSlowestTraces().forEach((endpoint, traces) -> {
+            List<Map<String, Object>> traceList = new ArrayList<>();
+            for (RequestTrace trace : traces) {
+                traceList.add(toMap(trace));
+            }
+            response.put(endpoint, traceList);
+        });
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/traces")
+    public ResponseEntity<?> clearTraces(HttpServletRequest request) {
+        if (!isLocal(request)) {
+            return forbidden();
+        }
+        requestTracer.clear();
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Traces cleared");
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> toMap(RequestTrace trace) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (RequestTrace.Span span : trace.getSpans()) {
+            Map<String, Object> spanMap = new LinkedHashMap<>();
+            spanMap.put("layer", span.getLayer());
+            spanMap.put("name", span.getName());
+            spanMap.put("depth", span.getDepth());
+            spanMap.put("offsetMs", span.getOffsetNanos() / 1e6);
+            spanMap.put("durationMs", span.getDurationNanos() / 1e6);
+            if (span.getError() != null) {
+                spanMap.put("error", span.getError());
+            }
+            spans.add(spanMap);
+        }
+
+        Map<String, Object> traceMap = new LinkedHashMap<>();
+        traceMap.put("startedAt", trace.getStartedAtMillis());
+        traceMap.put("status", trace.getStatus());
+        traceMap.put("durationMs", trace.getDurationNanos() / 1e6);
+        traceMap.put("droppedSpans", trace.getDroppedSpans());
+        traceMap.put("spans", spans);
+        return traceMap;
+    }
+
+    private static boolean isLocal(HttpServletRequest request) {
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Debug endpoints are only available locally");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+}
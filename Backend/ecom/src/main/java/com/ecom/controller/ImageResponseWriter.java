@@ -0,0 +1,117 @@
+package com.ecom.controller;
+
+import com.ecom.service.StoredFile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
+
+// Writes stored images with conditional-request and single-range support.
+// Large bodies of plain files are handed to Tomcat's sendfile when the connector
+// offers it, otherwise they are copied with StoredFile.transferTo.
+@Component
+class ImageResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Same threshold as Tomcat's DefaultServlet; smaller files are cheaper to copy
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    @Value("${image.cache-control:public, max-age=300}")
+    private String cacheControl;
+
+    private final DistributionSummary sendfileBytes;
+
+    private final DistributionSummary copiedBytes;
+
+    ImageResponseWriter(MeterRegistry meterRegistry) {
+        this.sendfileBytes = servedBytes(meterRegistry, "sendfile");
+        this.copiedBytes = servedBytes(meterRegistry, "copy");
+    }
+
+    private static DistributionSummary servedBytes(MeterRegistry meterRegistry, String delivery) {
+        return DistributionSummary.builder("image.response.bytes")
+                .description("Image body bytes written per response")
+                .baseUnit("bytes")
+                .tag("delivery", delivery)
+                .register(meterRegistry);
+    }
+
+    // Answers If-None-Match before the file is looked at
+    boolean isNotModified(String etag, HttpServletRequest request, HttpServletResponse response) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    void write(StoredFile file, String etag, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, file.getLastModified())) {
+            return;
+        }
+
+        long length = file.getLength();
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(file.getContentType());
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Multi-range requests are answered with the whole body, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count <= 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (count >= SENDFILE_THRESHOLD && file.getPath() != null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfileBytes.record(count);
+            return;
+        }
+
+        file.transferTo(start, count, Channels.newChannel(response.getOutputStream()));
+        copiedBytes.record(count);
+    }
+}
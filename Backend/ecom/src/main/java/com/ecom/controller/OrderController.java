@@ -1,15 +1,22 @@
 package com.ecom.controller;
 
-import com.ecom.model.Order;
-import com.ecom.model.Product;
-import com.ecom.model.User;
+import com.ecom.model.OrderSummary;
+import com.ecom.model.SellerDailySales;
+import com.ecom.model.SessionUser;
 import com.ecom.service.OrderService;
-import com.ecom.service.ProductService;
-import com.ecom.service.UserService;
+import com.ecom.service.ProductAlreadySoldException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -20,29 +27,90 @@ import java.util.stream.Collectors;
 public class OrderController {
     @Autowired
     private OrderService orderService;
-    @Autowired
-    private UserService userService;
-    @Autowired
-    private ProductService productService;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SALES_DAYS = 30;
+    private static final int MAX_SALES_DAYS = 366;
 
     @PostMapping
-    public ResponseEntity<?> placeOrder(@RequestBody Map<String, Object> payload) {
-        Long userId = Long.valueOf(payload.get("userId").toString());
+    public ResponseEntity<?> placeOrder(@AuthenticationPrincipal SessionUser sessionUser,
+                                        @RequestBody Map<String, Object> payload) {
+        // The buyer is whoever the token says; any userId in the payload is ignored
         List<?> productIdsRaw = (List<?>) payload.get("productIds");
         List<Long> productIds = productIdsRaw.stream()
             .map(id -> Long.valueOf(id.toString()))
             .collect(Collectors.toList());
-        User user = userService.getUserById(userId);
-        if (user == null) {
-            return ResponseEntity.badRequest().body("User not found");
-        }
-        for (Long pid : productIds) {
-            Product product = productService.getProductById(pid);
-            if (product != null) {
-                orderService.createOrder(user, product);
-                productService.deleteProduct(product.getId());
-            }
+        try {
+            orderService.checkout(sessionUser.toUserReference(), productIds);
+        } catch (ProductAlreadySoldException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Some items in your cart have already been sold");
+            response.put("productIds", e.getProductIds());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         }
         return ResponseEntity.ok("Order placed successfully");
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/user/{id}")
+    public ResponseEntity<?> getOrderHistory(
+            @AuthenticationPrincipal SessionUser sessionUser,
+            @PathVariable Long id,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (!id.equals(sessionUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Slice<OrderSummary> orders = orderService.getOrderHistory(id, Math.max(0, page), pageSize);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", orders.getContent());
+        response.put("next", orders.hasNext() ? orders.getNumber() + 1 : null);
+        return ResponseEntity.ok(response);
+    }
+
+    // Totals and per-day figures from the seller_daily_sales rollup; defaults to the last 30 days
+    @GetMapping("/seller/{sellerId}/sales")
+    public ResponseEntity<?> getSellerSales(
+            @AuthenticationPrincipal SessionUser sessionUser,
+            @PathVariable Long sellerId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!sellerId.equals(sessionUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_SALES_DAYS - 1) : from;
+        if (start.isAfter(end) || start.plusDays(MAX_SALES_DAYS).isBefore(end)) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "from must not be after to, and the range is limited to " + MAX_SALES_DAYS + " days");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        long orderCount = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        List<Map<String, Object>> days = new ArrayList<>();
+        for (SellerDailySales day : orderService.getSellerSales(sellerId, start, end)) {
+            orderCount += day.getOrderCount();
+            revenue = revenue.add(day.getRevenue());
+
+            Map<String, Object> dayMap = new HashMap<>();
+            dayMap.put("date", day.getSaleDate());
+            dayMap.put("orderCount", day.getOrderCount());
+            dayMap.put("revenue", day.getRevenue());
+            days.add(dayMap);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("sellerId", sellerId);
+        response.put("from", start);
+        response.put("to", end);
+        response.put("orderCount", orderCount);
+        response.put("revenue", revenue);
+        response.put("days", days);
+        return ResponseEntity.ok(response);
+    }
+}
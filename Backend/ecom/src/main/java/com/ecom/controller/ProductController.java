@@ -1,15 +1,36 @@
 package com.ecom.controller;
 
+import com.ecom.config.BulkheadFullException;
+import com.ecom.config.ReadRouting;
 import com.ecom.model.Product;
+import com.ecom.model.ProductSummary;
+import com.ecom.model.SessionUser;
 import com.ecom.model.User;
+import com.ecom.service.CatalogExportService;
+import com.ecom.service.CatalogSnapshot;
+import com.ecom.service.FileStorageService;
+import com.ecom.service.ImageVariant;
+import com.ecom.service.ProductImportService;
+import com.ecom.service.ProductResponseCache;
+import com.ecom.service.ProductSearchIndex;
 import com.ecom.service.ProductService;
+import com.ecom.service.StoredFile;
 import com.ecom.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -20,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -32,91 +54,224 @@ public class ProductController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductResponseCache productResponseCache;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ImageResponseWriter imageResponseWriter;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    // Per image; multipart limits are sized for import archives
+    @Value("${image.max-upload-size:10MB}")
+    private DataSize maxImageSize;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        List<Map<String, Object>> response = products.stream().map(product -> {
-            Map<String, Object> productMap = new HashMap<>();
-            productMap.put("id", product.getId());
-            productMap.put("name", product.getName());
-            productMap.put("description", product.getDescription());
-            productMap.put("price", product.getPrice());
-            productMap.put("sellerId", product.getSeller().getId());
-            productMap.put("sellerName", product.getSeller().getName());
-            productMap.put("hasImage", product.hasImage());
-            return productMap;
-        }).collect(Collectors.toList());
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        if (after == null && limit == null) {
+            return getCatalog(acceptEncoding, webRequest);
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<ProductSummary> rows = productService.getProductPage(after, pageSize);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("next", hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null);
         return ResponseEntity.ok(response);
     }
 
+    // The whole catalog, tagged with the catalog version; clients revalidate every time and
+    // get a 304 from the version alone, or the precompressed snapshot
+    private ResponseEntity<?> getCatalog(String acceptEncoding, WebRequest webRequest) {
+        String etag = catalogSnapshot.currentEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        CatalogSnapshot.Snapshot snapshot = catalogSnapshot.getCurrent();
+        if (snapshot == null) {
+            // Rebuild pending; rows read now from the primary are at least as new as the tag taken above
+            return builder.eTag(etag).body(ReadRouting.onPrimary(productService::getAllProductSummaries));
+        }
+        
+        builder.eTag(snapshot.getEtag()).contentType(MediaType.APPLICATION_JSON);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return builder.body(snapshot.getJson());
+    }
+
+    // One JSON object per line, streamed from a cursor; gzip when the client accepts it
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!catalogExportService.tryStartExport()) {
+            throw new BulkheadFullException("export");
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        // The body is written on an async thread; carry over this request's routing decision
+        boolean replicaAllowed = ReadRouting.isReplicaAllowed();
+        StreamingResponseBody body = out -> {
+            ReadRouting.setReplicaAllowed(replicaAllowed);
+            try {
+                if (gzip) {
+                    GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                    catalogExportService.writeCatalog(gzipOut);
+                    gzipOut.finish();
+                } else {
+                    catalogExportService.writeCatalog(out);
+                }
+            } finally {
+                ReadRouting.clear();
+                catalogExportService.finishExport();
+            }
+        };
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSummary>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productSearchIndex.search(query, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getProductById(@PathVariable Long id) {
-        Product product = productService.getProductById(id);
-        if (product == null) {
+        byte[] body = productResponseCache.getProductDetail(id, () -> {
+            Product product = productService.getProductById(id);
+            if (product == null || !product.isAvailable()) {
+                return null;
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", product.getId());
+            response.put("name", product.getName());
+            response.put("description", product.getDescription());
+            response.put("price", product.getPrice());
+            response.put("sellerId", product.getSeller().getId());
+            response.put("sellerName", product.getSeller().getName());
+            response.put("hasImage", product.hasImage());
+            return response;
+        });
+        if (body == null) {
             return ResponseEntity.notFound().build();
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", product.getId());
-        response.put("name", product.getName());
-        response.put("description", product.getDescription());
-        response.put("price", product.getPrice());
-        response.put("sellerId", product.getSeller().getId());
-        response.put("sellerName", product.getSeller().getName());
-        response.put("hasImage", product.hasImage());
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @GetMapping("/{id}/image")
-    public ResponseEntity<?> getProductImage(@PathVariable Long id) {
-        byte[] imageData = productService.getProductImage(id);
-        if (imageData == null) {
-            return ResponseEntity.notFound().build();
+    public void getProductImage(@PathVariable Long id,
+            @RequestParam(value = "size", required = false) String size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String imagePath = productService.getProductImagePath(id);
+        if (imagePath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
         
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(imageData);
+        ImageVariant variant = ImageVariant.fromParam(size);
+        if (variant == null && imageResponseWriter.isNotModified(FileStorageService.etagOf(imagePath), request, response)) {
+            return;
+        }
+        
+        StoredFile imageFile = fileStorageService.resolveProductImage(imagePath, variant);
+        if (imageFile == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Tag by the file actually served so a pending variant is not cached under the variant's tag
+        String etag = FileStorageService.etagOf(imageFile.getName());
+        imageResponseWriter.write(imageFile, etag, request, response);
     }
 
     @GetMapping("/seller/{sellerId}")
     public ResponseEntity<?> getProductsBySeller(@PathVariable Long sellerId) {
-        User seller = userService.getUserById(sellerId);
-        if (seller == null) {
+        byte[] body = productResponseCache.getSellerListing(sellerId, () -> {
+            User seller = userService.getUserById(sellerId);
+            if (seller == null) {
+                return null;
+            }
+            List<Product> products = productService.getProductsBySeller(seller);
+            return products.stream().map(product -> {
+                Map<String, Object> productMap = new HashMap<>();
+                productMap.put("id", product.getId());
+                productMap.put("name", product.getName());
+                productMap.put("description", product.getDescription());
+                productMap.put("price", product.getPrice());
+                productMap.put("hasImage", product.hasImage());
+                return productMap;
+            }).collect(Collectors.toList());
+        });
+        if (body == null) {
             return ResponseEntity.notFound().build();
         }
-        List<Product> products = productService.getProductsBySeller(seller);
-        List<Map<String, Object>> response = products.stream().map(product -> {
-            Map<String, Object> productMap = new HashMap<>();
-            productMap.put("id", product.getId());
-            productMap.put("name", product.getName());
-            productMap.put("description", product.getDescription());
-            productMap.put("price", product.getPrice());
-            productMap.put("hasImage", product.hasImage());
-            return productMap;
-        }).collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @PostMapping
     public ResponseEntity<?> createProduct(
-            @RequestParam("sellerId") Long sellerId,
+            @AuthenticationPrincipal SessionUser sessionUser,
+            @RequestParam(value = "sellerId", required = false) Long sellerId,
             @RequestParam("name") String name,
             @RequestParam("description") String description,
             @RequestParam("price") BigDecimal price,
             @RequestParam(value = "image", required = false) MultipartFile image) {
         
-        User seller = userService.getUserById(sellerId);
-        if (seller == null) {
-            return ResponseEntity.badRequest().body("Seller not found");
+        if (sellerId != null && !sellerId.equals(sessionUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You can only list products as yourself");
+        }
+        if (image != null && image.getSize() > maxImageSize.toBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Images can be at most " + maxImageSize.toMegabytes() + " MB");
         }
         
         Product product = new Product();
         product.setName(name);
         product.setDescription(description);
         product.setPrice(price);
-        product.setSeller(seller);
+        product.setSeller(sessionUser.toUserReference());
         
         try {
             Product savedProduct = productService.createProduct(product, image);
@@ -135,13 +290,67 @@ public class ProductController {
         }
     }
 
+    // Many listings at once from a CSV or NDJSON manifest (columns/keys name, description, price,
+    // image) and a zip holding the images it names. Rows that fail are reported and skipped;
+    // a manifest that breaks off midway is reported as fatalError along with what was imported.
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(
+            @AuthenticationPrincipal SessionUser sessionUser,
+            @RequestParam("manifest") MultipartFile manifest,
+            @RequestParam(value = "images", required = false) MultipartFile images,
+            @RequestParam(value = "format", required = false) String format) {
+        ProductImportService.Format manifestFormat = ProductImportService.Format.of(format, manifest.getOriginalFilename());
+        if (manifestFormat == null) {
+            return ResponseEntity.badRequest().body("Manifest format must be csv or ndjson");
+        }
+        if (!productImportService.tryStartImport()) {
+            throw new BulkheadFullException("import");
+        }
+        
+        try {
+            ProductImportService.Report report = productImportService.importProducts(
+                    sessionUser.toUserReference(), manifest, manifestFormat, images);
+            
+            List<Map<String, Object>> errors = report.getErrors().stream().map(error -> {
+                Map<String, Object> errorMap = new HashMap<>();
+                errorMap.put("row", error.getRow());
+                errorMap.put("message", error.getMessage());
+                return errorMap;
+            }).collect(Collectors.toList());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("imported", report.getImported());
+            response.put("failed", report.getFailed());
+            response.put("errors", errors);
+            response.put("errorsTruncated", report.isErrorsTruncated());
+            Map<String, Object> fatalError = null;
+            if (report.getFatalError() != null) {
+                fatalError = new HashMap<>();
+                fatalError.put("row", report.getFatalError().getRow());
+                fatalError.put("message", report.getFatalError().getMessage());
+            }
+            response.put("fatalError", fatalError);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to import products");
+        } finally {
+            productImportService.finishImport();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateProduct(
+            @AuthenticationPrincipal SessionUser sessionUser,
             @PathVariable Long id,
             @RequestParam("name") String name,
             @RequestParam("description") String description,
             @RequestParam("price") BigDecimal price,
             @RequestParam(value = "image", required = false) MultipartFile image) {
+        if (image != null && image.getSize() > maxImageSize.toBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Images can be at most " + maxImageSize.toMegabytes() + " MB");
+        }
         
         Product product = new Product();
         product.setName(name);
@@ -149,7 +358,7 @@ public class ProductController {
         product.setPrice(price);
         
         try {
-            Product updatedProduct = productService.updateProduct(id, product, image);
+            Product updatedProduct = productService.updateProduct(id, sessionUser.getId(), product, image);
             if (updatedProduct == null) {
                 return ResponseEntity.notFound().build();
             }
@@ -169,13 +378,19 @@ public class ProductController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
+    public ResponseEntity<?> deleteProduct(@AuthenticationPrincipal SessionUser sessionUser, @PathVariable Long id) {
         Product product = productService.getProductById(id);
-        if (product == null) {
+        // Sold listings are kept for their orders and are not the seller's to delete any more
+        if (product == null || !product.isAvailable()) {
             return ResponseEntity.notFound().build();
         }
+        if (!product.getSeller().getId().equals(sessionUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
-        productService.deleteProduct(id);
+        if (!productService.deleteProduct(id)) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.noContent().build();
     }
 } 
\ No newline at end of file
@@ -1,15 +1,25 @@
 package com.ecom.controller;
 
+import com.ecom.model.SessionUser;
 import com.ecom.model.User;
+import com.ecom.service.AccountDeletionService;
+import com.ecom.service.FileStorageService;
+import com.ecom.service.ImageVariant;
+import com.ecom.service.StoredFile;
 import com.ecom.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,6 +31,18 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ImageResponseWriter imageResponseWriter;
+
+    @Autowired
+    private AccountDeletionService accountDeletionService;
+
+    @Value("${image.max-upload-size:10MB}")
+    private DataSize maxImageSize;
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserProfile(@PathVariable Long id) {
         User user = userService.getUserById(id);
@@ -43,22 +65,42 @@ public class UserController {
     }
 
     @GetMapping("/{id}/profile-image")
-    public ResponseEntity<?> getProfileImage(@PathVariable Long id) {
-        byte[] imageData = userService.getUserProfileImage(id);
-        if (imageData == null) {
-            return ResponseEntity.notFound().build();
+    public void getProfileImage(@PathVariable Long id,
+            @RequestParam(value = "size", required = false) String size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String imagePath = userService.getProfileImagePath(id);
+        if (imagePath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
         
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(imageData);
+        ImageVariant variant = ImageVariant.fromParam(size);
+        if (variant == null && imageResponseWriter.isNotModified(FileStorageService.etagOf(imagePath), request, response)) {
+            return;
+        }
+        
+        StoredFile imageFile = fileStorageService.resolveUserImage(imagePath, variant);
+        if (imageFile == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Tag by the file actually served so a pending variant is not cached under the variant's tag
+        String etag = FileStorageService.etagOf(imageFile.getName());
+        imageResponseWriter.write(imageFile, etag, request, response);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<?> updateProfile(
+            @AuthenticationPrincipal SessionUser sessionUser,
             @PathVariable Long id,
             @RequestPart("user") User updatedUser,
             @RequestPart(value = "profileImage", required = false) MultipartFile profileImage) {
+        if (!id.equals(sessionUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (profileImage != null && profileImage.getSize() > maxImageSize.toBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Images can be at most " + maxImageSize.toMegabytes() + " MB");
+        }
         try {
             User result = userService.updateProfile(id, updatedUser, profileImage);
             if (result == null) {
@@ -82,22 +124,47 @@ public class UserController {
         }
     }
     
+    // Starts the deletion and answers right away; progress is polled with the job id
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id) {
-        try {
-            boolean deleted = userService.deleteUser(id);
-            if (!deleted) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "User account and all associated data deleted successfully");
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Failed to delete user account: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    public ResponseEntity<?> deleteUser(@AuthenticationPrincipal SessionUser sessionUser, @PathVariable Long id) {
+        if (!id.equals(sessionUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (userService.getUserById(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        AccountDeletionService.Job job = accountDeletionService.start(id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/users/deletions/" + job.getId()))
+                .body(deletionStatus(job));
+    }
+
+    // The account's tokens are revoked when deletion starts, so the random job id is what grants access
+    @GetMapping("/deletions/{jobId}")
+    public ResponseEntity<?> getDeletionStatus(@PathVariable String jobId) {
+        AccountDeletionService.Job job = accountDeletionService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(deletionStatus(job));
+    }
+
+    private Map<String, Object> deletionStatus(AccountDeletionService.Job job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("productsTotal", job.getProductsTotal());
+        response.put("productsDeleted", job.getProductsDeleted());
+        response.put("productsKept", job.getProductsKept());
+        response.put("ordersDeleted", job.getOrdersDeleted());
+        response.put("startedAt", job.getStartedAt().toString());
+        if (job.getFinishedAt() != null) {
+            response.put("finishedAt", job.getFinishedAt().toString());
+        }
+        if (job.getError() != null) {
+            response.put("error", job.getError());
         }
+        return response;
     }
-} 
\ No newline at end of file
+}
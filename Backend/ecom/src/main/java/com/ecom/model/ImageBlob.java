@@ -0,0 +1,38 @@
+package com.ecom.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// One row per distinct stored image, keyed by its SHA-256. Rows are only
+// written through the counting queries in ImageBlobRepository.
+@Entity
+@Table(name = "image_blobs")
+public class ImageBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private long byteSize;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    public ImageBlob() {
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecom.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// A stored image to release after the transaction that wrote this row commits
+@Entity
+@Table(name = "image_deletions")
+public class ImageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageOwner ownerType;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public ImageDeletion() {
+    }
+
+    public ImageDeletion(ImageOwner ownerType, String fileName, LocalDateTime createdAt) {
+        this.ownerType = ownerType;
+        this.fileName = fileName;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ImageOwner getOwnerType() {
+        return ownerType;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
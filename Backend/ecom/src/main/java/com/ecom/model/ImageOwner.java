@@ -0,0 +1,7 @@
+package com.ecom.model;
+
+// Which kind of row an image belonged to; old flat-layout files are kept per kind
+public enum ImageOwner {
+    PRODUCT,
+    USER
+}
@@ -6,8 +6,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "orders")
 public class Order {
+    // Pooled sequence instead of IDENTITY so that checkout inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,62 @@
+package com.ecom.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Order history row built by a JPQL constructor expression; no Order,
+// Product or User entities are loaded for history pages.
+public class OrderSummary {
+
+    private final Long id;
+
+    private final LocalDateTime orderDate;
+
+    private final Long productId;
+
+    private final String productName;
+
+    private final BigDecimal price;
+
+    private final Long sellerId;
+
+    private final String sellerName;
+
+    public OrderSummary(Long id, LocalDateTime orderDate, Long productId, String productName,
+                        BigDecimal price, Long sellerId, String sellerName) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.productId = productId;
+        this.productName = productName;
+        this.price = price;
+        this.sellerId = sellerId;
+        this.sellerName = sellerName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+}
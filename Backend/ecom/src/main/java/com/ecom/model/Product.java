@@ -2,12 +2,15 @@ package com.ecom.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 
 @Entity
@@ -28,10 +31,19 @@ public class Product {
     
     private String imagePath;
     
+    // Null only on SOLD listings of a deleted account
     @ManyToOne
-    @JoinColumn(name = "seller_id", nullable = false)
+    @JoinColumn(name = "seller_id")
     private User seller;
     
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProductStatus status = ProductStatus.AVAILABLE;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Constructors
     public Product() {
     }
@@ -92,6 +104,26 @@ public class Product {
         this.seller = seller;
     }
     
+    public ProductStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ProductStatus status) {
+        this.status = status;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public boolean isAvailable() {
+        return status == ProductStatus.AVAILABLE;
+    }
+    
     public boolean hasImage() {
         return imagePath != null && !imagePath.isEmpty();
     }
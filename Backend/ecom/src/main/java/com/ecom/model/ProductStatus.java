@@ -0,0 +1,6 @@
+package com.ecom.model;
+
+public enum ProductStatus {
+    AVAILABLE,
+    SOLD
+}
@@ -0,0 +1,76 @@
+package com.ecom.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+// Read-only catalog row built directly by a JPQL constructor expression,
+// so listing pages never materialize Product/User entities.
+public class ProductSummary {
+
+    private final Long id;
+
+    private final String name;
+
+    private final String description;
+
+    private final BigDecimal price;
+
+    private final String imagePath;
+
+    private final Long sellerId;
+
+    private final String sellerName;
+
+    public ProductSummary(Long id, String name, String description, BigDecimal price,
+                          String imagePath, Long sellerId, String sellerName) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.imagePath = imagePath;
+        this.sellerId = sellerId;
+        this.sellerName = sellerName;
+    }
+
+    public static ProductSummary of(Product product) {
+        User seller = product.getSeller();
+        return new ProductSummary(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getImagePath(), seller.getId(), seller.getName());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @JsonIgnore
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+
+    @JsonProperty("hasImage")
+    public boolean hasImage() {
+        return imagePath != null && !imagePath.isEmpty();
+    }
+}
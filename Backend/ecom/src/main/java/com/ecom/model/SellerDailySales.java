@@ -0,0 +1,77 @@
+package com.ecom.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Per-seller, per-day sales rollup. Rows are only written by the upsert in
+// SellerDailySalesRepository as part of each checkout transaction.
+@Entity
+@Table(name = "seller_daily_sales")
+@IdClass(SellerDailySales.Key.class)
+public class SellerDailySales {
+
+    @Id
+    private Long sellerId;
+
+    @Id
+    private LocalDate saleDate;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal revenue;
+
+    public static class Key implements Serializable {
+        private Long sellerId;
+        private LocalDate saleDate;
+
+        public Key() {
+        }
+
+        public Key(Long sellerId, LocalDate saleDate) {
+            this.sellerId = sellerId;
+            this.saleDate = saleDate;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(sellerId, key.sellerId) && Objects.equals(saleDate, key.saleDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sellerId, saleDate);
+        }
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public LocalDate getSaleDate() {
+        return saleDate;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecom.model;
+
+// Identity carried by a verified session token; available without a database lookup
+public class SessionUser {
+
+    private final Long id;
+    private final String name;
+    private final String tokenId;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public SessionUser(Long id, String name, String tokenId, long issuedAt, long expiresAt) {
+        this.id = id;
+        this.name = name;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    // Detached stand-in for the user row, enough to set a foreign key. It has no name: the
+    // token's copy can be up to auth.token.ttl old, so names are read from the users table.
+    public User toUserReference() {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecom.repository;
+
+import com.ecom.model.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (hash, byte_size, ref_count) VALUES (:hash, :byteSize, 1) " +
+                   "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1",
+           nativeQuery = true)
+    int addReference(@Param("hash") String hash, @Param("byteSize") long byteSize);
+
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    int removeReference(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.hash = :hash AND b.refCount = :refCount")
+    int deleteIfCount(@Param("hash") String hash, @Param("refCount") int refCount);
+}
@@ -0,0 +1,22 @@
+package com.ecom.repository;
+
+import com.ecom.model.ImageDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImageDeletionRepository extends JpaRepository<ImageDeletion, Long> {
+
+    // Oldest first; the sweeper deletes the rows by id before touching any file
+    @Query("SELECT d FROM ImageDeletion d ORDER BY d.id")
+    List<ImageDeletion> findOldest(Pageable pageable);
+
+    @Query("SELECT d.fileName FROM ImageDeletion d WHERE d.fileName IN :fileNames")
+    List<String> findFileNamesIn(@Param("fileNames") Collection<String> fileNames);
+}
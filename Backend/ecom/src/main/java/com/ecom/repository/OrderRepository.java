@@ -1,9 +1,33 @@
 package com.ecom.repository;
 
 import com.ecom.model.Order;
+import com.ecom.model.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-} 
\ No newline at end of file
+
+    // Walks idx_orders_user_date backwards; a Slice skips the count query.
+    // LEFT JOIN: the seller of a sold listing may have deleted their account since
+    @Query("SELECT new com.ecom.model.OrderSummary(o.id, o.orderDate, p.id, p.name, p.price, s.id, s.name) " +
+           "FROM Order o JOIN o.product p LEFT JOIN p.seller s " +
+           "WHERE o.user.id = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    Slice<OrderSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // No ORDER BY: every batch found is deleted before the next one is read
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,13 +1,27 @@
 package com.ecom.repository;
 
 import com.ecom.model.OtpVerification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OtpVerificationRepository extends JpaRepository<OtpVerification, Long> {
     Optional<OtpVerification> findByEmail(String email);
     Optional<OtpVerification> findByEmailAndOtp(String email, String otp);
-} 
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE OtpVerification o SET o.verified = true WHERE o.id = :id")
+    int markVerified(@Param("id") Long id);
+
+    // Served by the expiry_time and verified indexes; the caller deletes by id in batches
+    @Query("SELECT o.id FROM OtpVerification o WHERE o.expiryTime < :now OR o.verified = true ORDER BY o.id")
+    List<Long> findPurgeableIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package com.ecom.repository;
+
+import com.ecom.model.Product;
+
+import java.util.List;
+
+// Bulk writes that bypass the persistence context; mixed into ProductRepository
+public interface ProductBulkRepository {
+
+    // New AVAILABLE listings in one JDBC batch; returns the generated ids in input order
+    List<Long> insertAll(List<Product> products);
+}
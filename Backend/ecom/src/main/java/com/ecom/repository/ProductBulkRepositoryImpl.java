@@ -0,0 +1,61 @@
+package com.ecom.repository;
+
+import com.ecom.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Products use IDENTITY ids, which keeps Hibernate from batching their inserts.
+// Plain JDBC batches them; with rewriteBatchedStatements the MySQL driver sends a
+// single multi-row INSERT and still returns every generated key.
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO products (name, description, price, image_path, seller_id, status, version) " +
+                                             "VALUES (?, ?, ?, ?, ?, 'AVAILABLE', 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Long> insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Product product = products.get(i);
+                        statement.setString(1, product.getName());
+                        statement.setString(2, product.getDescription());
+                        statement.setBigDecimal(3, product.getPrice());
+                        statement.setString(4, product.getImagePath());
+                        statement.setLong(5, product.getSeller().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+
+        // The key column is named differently per driver (GENERATED_KEY on MySQL, id on H2)
+        List<Long> ids = new ArrayList<>(products.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+}
@@ -1,14 +1,91 @@
 package com.ecom.repository;
 
 import com.ecom.model.Product;
+import com.ecom.model.ProductStatus;
+import com.ecom.model.ProductSummary;
 import com.ecom.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findBySeller(User seller);
-    void deleteAllBySeller(User seller);
-} 
\ No newline at end of file
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductBulkRepository {
+    List<Product> findBySellerAndStatus(User seller, ProductStatus status);
+
+    @Query("SELECT new com.ecom.model.ProductSummary(p.id, p.name, p.description, p.price, p.imagePath, s.id, s.name) " +
+           "FROM Product p JOIN p.seller s WHERE p.status = com.ecom.model.ProductStatus.AVAILABLE ORDER BY p.id")
+    List<ProductSummary> findAllSummaries();
+
+    // A seller's listings as they now read, to refresh derived structures after a rename
+    @Query("SELECT new com.ecom.model.ProductSummary(p.id, p.name, p.description, p.price, p.imagePath, s.id, s.name) " +
+           "FROM Product p JOIN p.seller s WHERE s.id = :sellerId AND p.status = com.ecom.model.ProductStatus.AVAILABLE ORDER BY p.id")
+    List<ProductSummary> findSummariesBySeller(@Param("sellerId") Long sellerId);
+
+    // Keyset page: always seeks on the primary key, so page N costs the same as page 1
+    @Query("SELECT new com.ecom.model.ProductSummary(p.id, p.name, p.description, p.price, p.imagePath, s.id, s.name) " +
+           "FROM Product p JOIN p.seller s " +
+           "WHERE p.status = com.ecom.model.ProductStatus.AVAILABLE AND p.id > :after ORDER BY p.id")
+    List<ProductSummary> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT p.imagePath FROM Product p WHERE p.id = :id")
+    Optional<String> findImagePathById(@Param("id") Long id);
+
+    // Lock-free purchase: succeeds only for the buyer whose snapshot is still current.
+    // Image files of sold listings are removed after commit, so the path is cleared here too.
+    @Modifying
+    @Query("UPDATE Product p SET p.status = com.ecom.model.ProductStatus.SOLD, p.imagePath = NULL, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.status = com.ecom.model.ProductStatus.AVAILABLE AND p.version = :version")
+    int purchase(@Param("id") Long id, @Param("version") Long version);
+
+    // Listings whose image still sits in the flat uploads/products directory; blob names contain '/'
+    @Query("SELECT p.id FROM Product p WHERE p.id > :after AND p.imagePath IS NOT NULL AND p.imagePath NOT LIKE '%/%' ORDER BY p.id")
+    List<Long> findIdsWithLegacyImagePath(@Param("after") Long after, Pageable pageable);
+
+    // Only switches the path if nobody changed it meanwhile; bumps the version so stale entities cannot restore it
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.imagePath = :newPath, p.version = p.version + 1 WHERE p.id = :id AND p.imagePath = :oldPath")
+    int replaceImagePath(@Param("id") Long id, @Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    // Which of the given stored names some listing still uses (idx_products_image_path)
+    @Query("SELECT DISTINCT p.imagePath FROM Product p WHERE p.imagePath IN :imagePaths")
+    List<String> findImagePathsIn(@Param("imagePaths") Collection<String> imagePaths);
+
+    // Keyset over idx_products_seller_id, listings of every status
+    @Query("SELECT p.id FROM Product p WHERE p.seller.id = :sellerId AND p.id > :after ORDER BY p.id")
+    List<Long> findIdsBySeller(@Param("sellerId") Long sellerId, @Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.seller.id = :sellerId")
+    long countBySeller(@Param("sellerId") Long sellerId);
+
+    @Query("SELECT p.imagePath FROM Product p WHERE p.id IN :ids AND p.imagePath IS NOT NULL")
+    List<String> findImagePathsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Row locks for the rest of a deletion chunk: a concurrent purchase() waits, then misses
+    // the version, instead of inserting an order for a listing that is about to go
+    @Modifying
+    @Query("UPDATE Product p SET p.version = p.version + 1 WHERE p.id IN :ids")
+    int lockForDeletion(@Param("ids") Collection<Long> ids);
+
+    // Sold listings stay for the orders that refer to them; only the seller goes
+    @Modifying
+    @Query("UPDATE Product p SET p.seller = NULL WHERE p.id IN :ids AND p.status = com.ecom.model.ProductStatus.SOLD")
+    int detachSoldByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Waits on the row lock of a concurrent purchase() and then misses the SOLD row
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id AND p.status = com.ecom.model.ProductStatus.AVAILABLE")
+    int deleteIfAvailable(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id IN :ids AND p.status = com.ecom.model.ProductStatus.AVAILABLE")
+    int deleteAvailableByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,31 @@
+package com.ecom.repository;
+
+import com.ecom.model.SellerDailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SellerDailySalesRepository extends JpaRepository<SellerDailySales, SellerDailySales.Key> {
+
+    List<SellerDailySales> findBySellerIdAndSaleDateBetweenOrderBySaleDate(Long sellerId, LocalDate from, LocalDate to);
+
+    // Single-statement increment, so concurrent checkouts for one seller never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO seller_daily_sales (seller_id, sale_date, order_count, revenue) " +
+                   "VALUES (:sellerId, :saleDate, :orderCount, :revenue) " +
+                   "ON DUPLICATE KEY UPDATE order_count = order_count + :orderCount, revenue = revenue + :revenue",
+           nativeQuery = true)
+    int addSales(@Param("sellerId") Long sellerId, @Param("saleDate") LocalDate saleDate,
+                 @Param("orderCount") long orderCount, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM SellerDailySales s WHERE s.sellerId = :sellerId")
+    int deleteBySellerId(@Param("sellerId") Long sellerId);
+}
@@ -1,13 +1,37 @@
 package com.ecom.repository;
 
 import com.ecom.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+
+    @Query("SELECT u.name FROM User u WHERE u.id = :id")
+    Optional<String> findNameById(@Param("id") Long id);
+
+    @Query("SELECT u.profileImagePath FROM User u WHERE u.id = :id")
+    Optional<String> findProfileImagePathById(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM User u WHERE u.id > :after AND u.profileImagePath IS NOT NULL AND u.profileImagePath NOT LIKE '%/%' ORDER BY u.id")
+    List<Long> findIdsWithLegacyProfileImagePath(@Param("after") Long after, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.profileImagePath = :newPath WHERE u.id = :id AND u.profileImagePath = :oldPath")
+    int replaceProfileImagePath(@Param("id") Long id, @Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    @Query("SELECT DISTINCT u.profileImagePath FROM User u WHERE u.profileImagePath IN :imagePaths")
+    List<String> findProfileImagePathsIn(@Param("imagePaths") Collection<String> imagePaths);
+}
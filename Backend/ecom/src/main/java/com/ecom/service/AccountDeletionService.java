@@ -0,0 +1,196 @@
+package com.ecom.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Deletes an account in the background, in many short transactions instead of one
+// that holds every listing of a large seller: listings by keyset in chunks, then the
+// user's own orders, then the user row. Sold listings are not deleted: other buyers'
+// orders refer to them, so they stay without a seller. Each request gets a job
+// whose progress can be polled; jobs live in memory and are dropped some time after
+// they finish. A job that fails part way leaves a smaller account to delete again.
+@Service
+public class AccountDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountDeletionService.class);
+
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public static class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final Long userId;
+        private final Instant startedAt = Instant.now();
+        private volatile Status status = Status.RUNNING;
+        private volatile long productsTotal;
+        private volatile long productsDeleted;
+        private volatile long productsKept;
+        private volatile long ordersDeleted;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Job(Long userId) {
+            this.userId = userId;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getProductsTotal() {
+            return productsTotal;
+        }
+
+        public long getProductsDeleted() {
+            return productsDeleted;
+        }
+
+        public long getProductsKept() {
+            return productsKept;
+        }
+
+        public long getOrdersDeleted() {
+            return ordersDeleted;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Value("${account.deletion.chunk-size:500}")
+    private int chunkSize;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // One running job per user
+    private final Lock startLock = new ReentrantLock();
+
+    private final ExecutorService workers;
+
+    public AccountDeletionService(@Value("${account.deletion.workers:2}") int workerCount) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "account-deletion-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+    }
+
+    // Returns the job already running for the user, if any. Tokens are revoked up front
+    // so the account cannot add listings while they are being removed.
+    public Job start(Long userId) {
+        startLock.lock();
+        try {
+            purgeFinished();
+            for (Job job : jobs.values()) {
+                if (job.userId.equals(userId) && job.status == Status.RUNNING) {
+                    return job;
+                }
+            }
+            Job job = new Job(userId);
+            jobs.put(job.id, job);
+            sessionTokenService.revokeAllFor(userId);
+            workers.execute(() -> run(job));
+            return job;
+        } finally {
+            startLock.unlock();
+        }
+    }
+
+    // Null for unknown or expired job ids
+    public Job getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void run(Job job) {
+        Long userId = job.userId;
+        try {
+            job.productsTotal = productService.countProductsBySeller(userId);
+            long after = 0;
+            ProductService.SellerChunk chunk;
+            while ((chunk = productService.removeSellerChunk(userId, after, chunkSize)) != null) {
+                after = chunk.getLastId();
+                job.productsDeleted += chunk.getDeleted();
+                job.productsKept += chunk.getKept();
+            }
+
+            int ordersDeleted;
+            while ((ordersDeleted = orderService.deleteOrderChunkOfBuyer(userId, chunkSize)) > 0) {
+                job.ordersDeleted += ordersDeleted;
+            }
+
+            userService.deleteUser(userId);
+            job.status = Status.COMPLETED;
+            log.info("Deleted account {} with {} listings ({} sold ones kept) and {} orders in {} ms", userId,
+                    job.productsDeleted, job.productsKept, job.ordersDeleted,
+                    Duration.between(job.startedAt, Instant.now()).toMillis());
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+            log.warn("Deleting account {} failed after {} listings", userId, job.productsDeleted, e);
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    private void purgeFinished() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecom.service;
+
+// Reference counts for content-addressed blobs, so a blob shared by several
+// listings or profiles is only removed together with its last reference.
+public interface BlobReferenceStore {
+
+    void addReference(String hash, long byteSize);
+
+    // True if that was the last reference and the blob may be deleted
+    boolean removeReference(String hash);
+
+    // 0 when the hash has no row
+    int referenceCount(String hash);
+
+    // For blobs nothing refers to: drops the count if it is still expectedCount (no row
+    // counts as 0). True if the blob may be deleted; false if it was referenced meanwhile.
+    boolean clearReferences(String hash, int expectedCount);
+}
@@ -0,0 +1,90 @@
+package com.ecom.service;
+
+import com.ecom.model.ProductSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+// Writes the catalog as NDJSON straight from a database cursor. Each export
+// holds a connection until the client has read everything, so the number of
+// concurrent exports is capped separately from the request bulkheads.
+@Service
+public class CatalogExportService {
+
+    private static final String SUMMARIES_QUERY =
+            "SELECT new com.ecom.model.ProductSummary(p.id, p.name, p.description, p.price, p.imagePath, s.id, s.name) " +
+            "FROM Product p JOIN p.seller s WHERE p.status = com.ecom.model.ProductStatus.AVAILABLE ORDER BY p.id";
+
+    // Connector/J streams a result set row by row only for this fetch size; any other value
+    // buffers the whole result unless cursor fetching is switched on for the entire pool
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int fetchSize;
+
+    private final ObjectWriter rowWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final Semaphore exportSlots;
+
+    public CatalogExportService(ObjectMapper objectMapper,
+                                @Value("${export.max-concurrent:2}") int maxConcurrentExports,
+                                @Value("${spring.datasource.url}") String datasourceUrl) {
+        this.objectMapper = objectMapper;
+        this.fetchSize = datasourceUrl.startsWith("jdbc:mysql:") ? MYSQL_STREAMING_FETCH_SIZE : DEFAULT_FETCH_SIZE;
+        // Let the generator's buffer decide when to flush, not every row
+        this.rowWriter = objectMapper.writerFor(ProductSummary.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.exportSlots = new Semaphore(maxConcurrentExports);
+    }
+
+    public boolean tryStartExport() {
+        return exportSlots.tryAcquire();
+    }
+
+    public void finishExport() {
+        exportSlots.release();
+    }
+
+    @Transactional(readOnly = true)
+    public long writeCatalog(OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<ProductSummary> summaries = streamAllSummaries()) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (ProductSummary summary : (Iterable<ProductSummary>) summaries::iterator) {
+                rowWriter.writeValue(generator, summary);
+                generator.writeRaw('\n');
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // DTO rows never enter the persistence context, so memory stays flat for any catalog size.
+    // Must be consumed and closed inside the transaction.
+    private Stream<ProductSummary> streamAllSummaries() {
+        return entityManager.createQuery(SUMMARIES_QUERY, ProductSummary.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecom.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// The full catalog (GET /api/products) serialized and gzipped ahead of time. A version
+// counter moves on every product write; the ETag is derived from it, so conditional
+// requests are answered without touching the database. A single background thread
+// rebuilds the snapshot after writes, at most once per min-rebuild-interval-ms.
+@Service
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Seeded from the clock so tags handed out before a restart never match the new process's content
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    private volatile Snapshot snapshot;
+
+    private final ScheduledExecutorService builder;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    private final long minRebuildIntervalMs;
+
+    private volatile long lastRebuildStarted;
+
+    public static class Snapshot {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Snapshot(long version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String getEtag() {
+            return etagOf(version);
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+
+    public CatalogSnapshot(@Value("${catalog.snapshot.min-rebuild-interval-ms:1000}") long minRebuildIntervalMs) {
+        this.minRebuildIntervalMs = minRebuildIntervalMs;
+        this.builder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static String etagOf(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    public String currentEtag() {
+        return etagOf(version.get());
+    }
+
+    // Null while the snapshot is behind the catalog; a rebuild is under way then
+    public Snapshot getCurrent() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current;
+        }
+        scheduleRebuild();
+        return null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(0, lastRebuildStarted + minRebuildIntervalMs - System.currentTimeMillis());
+        try {
+            builder.schedule(this::rebuild, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private void rebuild() {
+        // Writes from here on queue another run
+        rebuildQueued.set(false);
+        // Read before the rows, so the snapshot is at least as new as the version it is tagged with
+        long target = version.get();
+        Snapshot current = snapshot;
+        if (current != null && current.version == target) {
+            return;
+        }
+        lastRebuildStarted = System.currentTimeMillis();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(productService.getAllProductSummaries());
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            // Compressed once per version, so the slowest level is affordable
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 8192) {{
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }}) {
+                gzip.write(json);
+            }
+            snapshot = new Snapshot(target, json, compressed.toByteArray());
+            log.debug("Catalog snapshot v{}: {} bytes, {} gzipped", target, json.length, compressed.size());
+        } catch (IOException | RuntimeException e) {
+            // Requests read from the database meanwhile and queue another attempt
+            log.warn("Could not rebuild the catalog snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
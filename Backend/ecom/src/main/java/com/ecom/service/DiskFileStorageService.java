@@ -0,0 +1,412 @@
+package com.ecom.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// One file per distinct image under blobs/ab/cd/<sha-256>
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "files", matchIfMissing = true)
+public class DiskFileStorageService implements FileStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskFileStorageService.class);
+
+    // The flat users/ and products/ directories only hold files not yet moved by LegacyImageMigration
+    private final Path blobsLocation;
+    private final Path stagingLocation;
+    private final Path userImagesLocation;
+    private final Path productImagesLocation;
+
+    // Uploads live on this instance's disk, so a per-process lock is enough to keep
+    // a blob's reference count and its file in step
+    private final Lock[] blobLocks = new Lock[64];
+
+    // Stored names are never reused for different content, so metadata can be cached until deletion
+    private final Cache<Path, StoredFile> metadataCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    private final ImageVariantService imageVariantService;
+
+    private final BlobReferenceStore blobReferenceStore;
+
+    private final Timer storeTimer;
+    private final Timer loadTimer;
+    private final Timer resolveTimer;
+    private final Timer deleteTimer;
+    private final DistributionSummary storedBytes;
+    private final DistributionSummary loadedBytes;
+    private final Counter deduplicatedCounter;
+
+    @Value("${image.variants.backfill-on-startup:false}")
+    private boolean backfillVariantsOnStartup;
+
+    public DiskFileStorageService(@Value("${file.storage.location:uploads}") String fileStorageLocation,
+                              ImageVariantService imageVariantService,
+                              BlobReferenceStore blobReferenceStore,
+                              MeterRegistry meterRegistry) {
+        this.imageVariantService = imageVariantService;
+        this.blobReferenceStore = blobReferenceStore;
+        this.storeTimer = operationTimer(meterRegistry, "store");
+        this.loadTimer = operationTimer(meterRegistry, "load");
+        this.resolveTimer = operationTimer(meterRegistry, "resolve");
+        this.deleteTimer = operationTimer(meterRegistry, "delete");
+        this.storedBytes = operationBytes(meterRegistry, "store");
+        this.loadedBytes = operationBytes(meterRegistry, "load");
+        this.deduplicatedCounter = Counter.builder("file.storage.deduplicated")
+                .description("Uploads whose content was already stored")
+                .register(meterRegistry);
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+        Path baseLocation = Paths.get(fileStorageLocation).toAbsolutePath().normalize();
+        this.blobsLocation = Paths.get(baseLocation.toString(), "blobs");
+        this.stagingLocation = Paths.get(baseLocation.toString(), "staging");
+        this.userImagesLocation = Paths.get(baseLocation.toString(), "users");
+        this.productImagesLocation = Paths.get(baseLocation.toString(), "products");
+        
+        try {
+            Files.createDirectories(this.blobsLocation);
+            Files.createDirectories(this.stagingLocation);
+            Files.createDirectories(this.userImagesLocation);
+            Files.createDirectories(this.productImagesLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create the directories where the uploaded files will be stored.", e);
+        }
+    }
+
+    private static Timer operationTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("file.storage.operations")
+                .description("Time spent in file storage operations")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static DistributionSummary operationBytes(MeterRegistry meterRegistry, String operation) {
+        return DistributionSummary.builder("file.storage.bytes")
+                .description("Size of files written to or read from storage")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String storeUserImage(MultipartFile file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeProductImage(MultipartFile file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeUserImage(File file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeProductImage(File file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeProductImage(InputStream content) {
+        try {
+            return enqueueVariants(storeBlob(content));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store image", e);
+        }
+    }
+
+    @Override
+    public String rehomeUserImage(String legacyFileName) {
+        return enqueueVariants(rehome(userImagesLocation.resolve(legacyFileName)));
+    }
+
+    @Override
+    public String rehomeProductImage(String legacyFileName) {
+        return enqueueVariants(rehome(productImagesLocation.resolve(legacyFileName)));
+    }
+
+    private String enqueueVariants(String fileName) {
+        if (fileName != null) {
+            imageVariantService.submit(blobsLocation.resolve(fileName));
+        }
+        return fileName;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillVariants() {
+        if (!backfillVariantsOnStartup) {
+            return;
+        }
+        int submitted = imageVariantService.backfill(blobsLocation)
+                + imageVariantService.backfill(productImagesLocation)
+                + imageVariantService.backfill(userImagesLocation);
+        log.info("Queued {} images for variant backfill", submitted);
+    }
+
+    private String storeFile(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        try (InputStream inputStream = file.getInputStream()) {
+            return storeBlob(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename(), e);
+        }
+    }
+
+    private String storeFile(File file) {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            return storeBlob(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store file " + file.getName(), e);
+        }
+    }
+
+    private String rehome(Path legacyFile) {
+        if (!Files.isRegularFile(legacyFile)) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(legacyFile)) {
+            return storeBlob(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not rehome file " + legacyFile, e);
+        }
+    }
+
+    // Either moves the staged upload to ab/cd/<sha-256> or, when that content
+    // is already stored, just counts one more reference
+    private String storeBlob(InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        try (StagedBlob staged = StagedBlob.stage(inputStream, stagingLocation)) {
+            storedBytes.record(staged.getSize());
+            String fileName = StagedBlob.blobName(staged.getHash());
+            Path target = blobsLocation.resolve(fileName);
+            Lock lock = lockFor(staged.getHash());
+            lock.lock();
+            try {
+                blobReferenceStore.addReference(staged.getHash(), staged.getSize());
+                if (Files.exists(target)) {
+                    deduplicatedCounter.increment();
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(staged.getPath(), target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return fileName;
+        } finally {
+            storeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Lock lockFor(String hash) {
+        return blobLocks[Integer.parseInt(hash.substring(0, 4), 16) % blobLocks.length];
+    }
+
+    private Path storedPath(Path legacyLocation, String fileName) {
+        return FileStorageService.isLegacyName(fileName) ? legacyLocation.resolve(fileName) : blobsLocation.resolve(fileName);
+    }
+
+    @Override
+    public byte[] loadUserImage(String fileName) {
+        return loadFile(storedPath(userImagesLocation, fileName));
+    }
+
+    @Override
+    public byte[] loadProductImage(String fileName) {
+        return loadFile(storedPath(productImagesLocation, fileName));
+    }
+
+    private byte[] loadFile(Path filePath) {
+        long start = System.nanoTime();
+        try {
+            byte[] content = Files.readAllBytes(filePath);
+            loadedBytes.record(content.length);
+            return content;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file: " + filePath, e);
+        } finally {
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public StoredFile resolveUserImage(String fileName) {
+        return resolveFile(storedPath(userImagesLocation, fileName));
+    }
+
+    @Override
+    public StoredFile resolveProductImage(String fileName) {
+        return resolveFile(storedPath(productImagesLocation, fileName));
+    }
+
+    @Override
+    public StoredFile resolveUserImage(String fileName, ImageVariant variant) {
+        return resolveVariant(storedPath(userImagesLocation, fileName), variant);
+    }
+
+    @Override
+    public StoredFile resolveProductImage(String fileName, ImageVariant variant) {
+        return resolveVariant(storedPath(productImagesLocation, fileName), variant);
+    }
+
+    private StoredFile resolveVariant(Path original, ImageVariant variant) {
+        if (variant != null) {
+            StoredFile variantFile = resolveFile(ImageVariantService.variantPath(original, variant));
+            if (variantFile != null) {
+                return variantFile;
+            }
+        }
+        return resolveFile(original);
+    }
+
+    private StoredFile resolveFile(Path filePath) {
+        StoredFile cached = metadataCache.getIfPresent(filePath);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Only cache misses are timed; hits never touch the disk
+        long start = System.nanoTime();
+        try {
+            if (!Files.isRegularFile(filePath)) {
+                return null;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            StoredFile storedFile = new StoredFile(filePath, attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), detectContentType(filePath));
+            metadataCache.put(filePath, storedFile);
+            return storedFile;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file attributes: " + filePath, e);
+        } finally {
+            resolveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String detectContentType(Path filePath) throws IOException {
+        byte[] header = new byte[12];
+        int read;
+        try (InputStream inputStream = Files.newInputStream(filePath)) {
+            read = inputStream.readNBytes(header, 0, header.length);
+        }
+
+        String imageType = StoredFile.detectImageType(header, read);
+        if (imageType != null) {
+            return imageType;
+        }
+        String probed = Files.probeContentType(filePath);
+        return probed != null ? probed : "application/octet-stream";
+    }
+
+    @Override
+    public void deleteUserImage(String fileName) {
+        deleteStored(userImagesLocation, fileName);
+    }
+
+    @Override
+    public void deleteProductImage(String fileName) {
+        deleteStored(productImagesLocation, fileName);
+    }
+
+    // A blob goes only with its last reference; old flat-layout files are never shared
+    private void deleteStored(Path legacyLocation, String fileName) {
+        long start = System.nanoTime();
+        try {
+            if (FileStorageService.isLegacyName(fileName)) {
+                deleteFile(legacyLocation.resolve(fileName));
+                return;
+            }
+            String hash = StagedBlob.hashOf(fileName);
+            Lock lock = lockFor(hash);
+            lock.lock();
+            try {
+                if (blobReferenceStore.removeReference(hash)) {
+                    deleteFile(blobsLocation.resolve(fileName));
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            deleteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Originals sit exactly three levels down (ab/cd/<sha-256>); variants are one level deeper
+    @Override
+    public void forEachStoredImage(Consumer<String> action) {
+        try (Stream<Path> files = Files.walk(blobsLocation, 3)) {
+            files.filter(file -> blobsLocation.relativize(file).getNameCount() == 3 && Files.isRegularFile(file))
+                    .forEach(file -> action.accept(StagedBlob.blobName(file.getFileName().toString())));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list stored images in " + blobsLocation, e);
+        }
+    }
+
+    @Override
+    public boolean purgeImage(String fileName, int expectedReferences) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return false;
+        }
+        String hash = StagedBlob.hashOf(fileName);
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (!blobReferenceStore.clearReferences(hash, expectedReferences)) {
+                return false;
+            }
+            deleteFile(blobsLocation.resolve(fileName));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteFile(Path filePath) {
+        metadataCache.invalidate(filePath);
+        for (ImageVariant variant : ImageVariant.values()) {
+            metadataCache.invalidate(ImageVariantService.variantPath(filePath, variant));
+        }
+        imageVariantService.deleteVariants(filePath);
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not delete file: " + filePath, e);
+        }
+    }
+}
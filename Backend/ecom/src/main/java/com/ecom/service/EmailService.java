@@ -2,15 +2,15 @@ package com.ecom.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailDispatcher mailDispatcher;
 
+    // Queued for background delivery; throws MailQueueFullException when the queue is saturated
     public void sendOtpEmail(String to, String otp) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom("noreply@gradgear.com");
@@ -19,6 +19,6 @@ public class EmailService {
         message.setText("Your OTP for GradGear account verification is: " + otp + 
                         "\n\nThis OTP will expire in 10 minutes.\n\nRegards,\nGradGear Team");
         
-        mailSender.send(message);
+        mailDispatcher.enqueue(message);
     }
 } 
\ No newline at end of file
@@ -1,130 +1,69 @@
 package com.ecom.service;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
-import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.function.Consumer;
 
-@Service
-public class FileStorageService {
-
-    private final Path userImagesLocation;
-    private final Path productImagesLocation;
-
-    public FileStorageService(@Value("${file.storage.location:uploads}") String fileStorageLocation) {
-        Path baseLocation = Paths.get(fileStorageLocation).toAbsolutePath().normalize();
-        this.userImagesLocation = Paths.get(baseLocation.toString(), "users");
-        this.productImagesLocation = Paths.get(baseLocation.toString(), "products");
-        
-        try {
-            Files.createDirectories(this.userImagesLocation);
-            Files.createDirectories(this.productImagesLocation);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create the directories where the uploaded files will be stored.", e);
-        }
-    }
+// Where product and profile images live. Stored names are content-addressed
+// (ab/cd/<sha-256>) and reference-counted in image_blobs; names without a '/'
+// are files of the old flat layout that LegacyImageMigration has not moved yet.
+// Selected with file.storage.backend=files (default) or file.storage.backend=packed.
+public interface FileStorageService {
 
-    public String storeUserImage(MultipartFile file, Long userId) {
-        return storeFile(file, userImagesLocation, "user_" + userId + "_");
-    }
+    String storeUserImage(MultipartFile file);
 
-    public String storeProductImage(MultipartFile file, Long productId) {
-        return storeFile(file, productImagesLocation, "product_" + productId + "_");
-    }
-    
-    public String storeUserImage(File file, Long userId) {
-        return storeFile(file, userImagesLocation, "user_" + userId + "_");
-    }
+    String storeProductImage(MultipartFile file);
 
-    public String storeProductImage(File file, Long productId) {
-        return storeFile(file, productImagesLocation, "product_" + productId + "_");
-    }
+    String storeUserImage(File file);
 
-    private String storeFile(MultipartFile file, Path location, String prefix) {
-        if (file == null || file.isEmpty()) {
-            return null;
-        }
-
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = "";
-        
-        if (originalFileName != null && originalFileName.contains(".")) {
-            fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        }
-        
-        String fileName = prefix + UUID.randomUUID() + fileExtension;
-
-        try {
-            Path targetLocation = location.resolve(fileName);
-            try (InputStream inputStream = file.getInputStream()) {
-                Files.copy(inputStream, targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            }
-            return fileName;
-        } catch (IOException e) {
-            throw new RuntimeException("Could not store file " + fileName, e);
-        }
-    }
-    
-    private String storeFile(File file, Path location, String prefix) {
-        if (file == null || !file.exists()) {
-            return null;
-        }
-
-        String originalFileName = file.getName();
-        String fileExtension = "";
-        
-        if (originalFileName.contains(".")) {
-            fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        }
-        
-        String fileName = prefix + UUID.randomUUID() + fileExtension;
-
-        try {
-            Path targetLocation = location.resolve(fileName);
-            Files.copy(file.toPath(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            return fileName;
-        } catch (IOException e) {
-            throw new RuntimeException("Could not store file " + fileName, e);
-        }
-    }
+    String storeProductImage(File file);
 
-    public byte[] loadUserImage(String fileName) {
-        return loadFile(userImagesLocation.resolve(fileName));
-    }
+    // Reads the stream to the end; the caller closes it
+    String storeProductImage(InputStream content);
 
-    public byte[] loadProductImage(String fileName) {
-        return loadFile(productImagesLocation.resolve(fileName));
-    }
+    // Copies a file still stored under the old flat layout into the store and
+    // returns its blob name, or null if the file is gone. The old file stays until
+    // the caller has switched its reference and deletes it by the old name.
+    String rehomeUserImage(String legacyFileName);
 
-    private byte[] loadFile(Path filePath) {
-        try {
-            return Files.readAllBytes(filePath);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not read file: " + filePath, e);
-        }
-    }
+    String rehomeProductImage(String legacyFileName);
 
-    public void deleteUserImage(String fileName) {
-        deleteFile(userImagesLocation.resolve(fileName));
-    }
+    byte[] loadUserImage(String fileName);
+
+    byte[] loadProductImage(String fileName);
+
+    // Null when nothing is stored under the name
+    StoredFile resolveUserImage(String fileName);
+
+    StoredFile resolveProductImage(String fileName);
+
+    // Falls back to the original while the variant has not been generated yet
+    StoredFile resolveUserImage(String fileName, ImageVariant variant);
+
+    StoredFile resolveProductImage(String fileName, ImageVariant variant);
+
+    // A blob goes only with its last reference
+    void deleteUserImage(String fileName);
+
+    void deleteProductImage(String fileName);
+
+    // Stored names of every original in the store; old flat-layout files are not listed
+    void forEachStoredImage(Consumer<String> action);
+
+    // Removes an image no row refers to, variants included, if its reference count is
+    // still the one the caller saw. False if it was referenced again meanwhile.
+    boolean purgeImage(String fileName, int expectedReferences);
 
-    public void deleteProductImage(String fileName) {
-        deleteFile(productImagesLocation.resolve(fileName));
+    static boolean isLegacyName(String fileName) {
+        return fileName.indexOf('/') < 0;
     }
 
-    private void deleteFile(Path filePath) {
-        try {
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not delete file: " + filePath, e);
-        }
+    // Strong validator derived from the stored name alone, so conditional requests need no disk access
+    static String etagOf(String fileName) {
+        return "\"" + UUID.nameUUIDFromBytes(fileName.getBytes(StandardCharsets.UTF_8)) + "\"";
     }
-} 
\ No newline at end of file
+}
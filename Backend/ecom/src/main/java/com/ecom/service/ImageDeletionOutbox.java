@@ -0,0 +1,126 @@
+package com.ecom.service;
+
+import com.ecom.model.ImageDeletion;
+import com.ecom.model.ImageOwner;
+import com.ecom.repository.ImageDeletionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Images whose reference is dropped are released after commit, never inside the
+// transaction: an image_deletions row is written together with the row change and
+// swept in batches once it is committed, so a rolled-back transaction keeps both
+// its reference and its file. Rows are deleted before their images are released,
+// which makes every release happen at most once; one lost to a crash or an I/O
+// error leaves an unreferenced image for OrphanImageReconciler.
+@Service
+public class ImageDeletionOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDeletionOutbox.class);
+
+    public static final class Queued {
+    }
+
+    @Autowired
+    private ImageDeletionRepository imageDeletionRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${file.storage.deletion-batch-size:500}")
+    private int batchSize;
+
+    private final Lock sweepLock = new ReentrantLock();
+
+    @Transactional
+    public void deleteProductImage(String fileName) {
+        enqueue(ImageOwner.PRODUCT, List.of(fileName));
+    }
+
+    @Transactional
+    public void deleteProductImages(Collection<String> fileNames) {
+        enqueue(ImageOwner.PRODUCT, fileNames);
+    }
+
+    @Transactional
+    public void deleteUserImage(String fileName) {
+        enqueue(ImageOwner.USER, List.of(fileName));
+    }
+
+    private void enqueue(ImageOwner ownerType, Collection<String> fileNames) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageDeletion> deletions = fileNames.stream()
+                .filter(Objects::nonNull)
+                .map(fileName -> new ImageDeletion(ownerType, fileName, now))
+                .collect(Collectors.toList());
+        if (deletions.isEmpty()) {
+            return;
+        }
+        imageDeletionRepository.saveAll(deletions);
+        eventPublisher.publishEvent(new Queued());
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onQueued(Queued event) {
+        sweep();
+    }
+
+    // Also picks up rows committed while no sweep was triggered (e.g. before a restart)
+    @Scheduled(fixedDelayString = "${file.storage.deletion-sweep-interval-ms:30000}")
+    public void sweep() {
+        sweepLock.lock();
+        try {
+            int released = 0;
+            List<ImageDeletion> batch;
+            do {
+                batch = imageDeletionRepository.findOldest(PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                imageDeletionRepository.deleteAllByIdInBatch(
+                        batch.stream().map(ImageDeletion::getId).collect(Collectors.toList()));
+                for (ImageDeletion deletion : batch) {
+                    try {
+                        release(deletion);
+                        released++;
+                    } catch (RuntimeException e) {
+                        log.warn("Could not delete image {}", deletion.getFileName(), e);
+                    }
+                }
+            } while (batch.size() == batchSize);
+            if (released > 0) {
+                log.debug("Released {} images from the deletion outbox", released);
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private void release(ImageDeletion deletion) {
+        if (deletion.getOwnerType() == ImageOwner.USER) {
+            fileStorageService.deleteUserImage(deletion.getFileName());
+        } else {
+            fileStorageService.deleteProductImage(deletion.getFileName());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecom.service;
+
+import java.util.Locale;
+
+// Pre-sized renditions generated for every uploaded image, largest first
+public enum ImageVariant {
+    FULL(1280),
+    CARD(480),
+    THUMB(160);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public String suffix() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // Unknown or missing values mean "serve the original"
+    public static ImageVariant fromParam(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (ImageVariant variant : values()) {
+            if (variant.suffix().equalsIgnoreCase(value)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,262 @@
+package com.ecom.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Generates the thumb/card/full renditions of uploaded images on a bounded
+// background pool. Jobs are idempotent: existing variants are left alone.
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    static final String VARIANTS_DIRECTORY = "variants";
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ExecutorService workers;
+
+    // Caps queued plus running jobs; uploads drop work instead of waiting for a permit
+    private final Semaphore pending;
+
+    public ImageVariantService(@Value("${image.variants.workers:2}") int workerCount,
+                               @Value("${image.variants.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        this.workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+        this.pending = new Semaphore(queueCapacity);
+    }
+
+    public static Path variantPath(Path original, ImageVariant variant) {
+        String fileName = original.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return original.resolveSibling(VARIANTS_DIRECTORY).resolve(baseName + "__" + variant.suffix() + ".jpg");
+    }
+
+    // Reads an original for a variant job; returns null when it is gone by the time the job runs
+    public interface ImageSource {
+        InputStream open() throws IOException;
+    }
+
+    // Where the renditions of one original are kept
+    public interface VariantTarget {
+        boolean exists(ImageVariant variant);
+
+        void write(ImageVariant variant, byte[] jpeg) throws IOException;
+    }
+
+    // Never blocks the caller; a dropped job is picked up again by the next backfill
+    public boolean submit(Path original) {
+        return submit(original.getFileName().toString(), fileSource(original), fileTarget(original));
+    }
+
+    public boolean submit(String name, ImageSource source, VariantTarget target) {
+        if (!pending.tryAcquire()) {
+            log.warn("Image variant queue is full, skipping {}", name);
+            return false;
+        }
+        execute(name, source, target);
+        return true;
+    }
+
+    // Enqueues every original under the directory that is missing a variant, waiting for queue space
+    public int backfill(Path directory) {
+        int submitted = 0;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path original : (Iterable<Path>) files.filter(ImageVariantService::isOriginal)::iterator) {
+                if (backfill(original.getFileName().toString(), fileSource(original), fileTarget(original))) {
+                    submitted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list {} for variant backfill", directory, e);
+        }
+        return submitted;
+    }
+
+    // Like submit, but waits for queue space; false if nothing was missing
+    public boolean backfill(String name, ImageSource source, VariantTarget target) {
+        if (hasAllVariants(target)) {
+            return false;
+        }
+        pending.acquireUninterruptibly();
+        execute(name, source, target);
+        return true;
+    }
+
+    private void execute(String name, ImageSource source, VariantTarget target) {
+        workers.execute(() -> {
+            try {
+                generateVariants(name, source, target);
+            } finally {
+                pending.release();
+            }
+        });
+    }
+
+    private static boolean isOriginal(Path path) {
+        return Files.isRegularFile(path) && !path.getParent().getFileName().toString().equals(VARIANTS_DIRECTORY);
+    }
+
+    private static ImageSource fileSource(Path original) {
+        return () -> Files.isRegularFile(original) ? Files.newInputStream(original) : null;
+    }
+
+    // Variants next to the original in a variants/ directory, each written to a temp
+    // file and moved into place so readers never see a partial variant
+    private static VariantTarget fileTarget(Path original) {
+        return new VariantTarget() {
+            @Override
+            public boolean exists(ImageVariant variant) {
+                return Files.exists(variantPath(original, variant));
+            }
+
+            @Override
+            public void write(ImageVariant variant, byte[] jpeg) throws IOException {
+                Path target = variantPath(original, variant);
+                Files.createDirectories(target.getParent());
+                Path temp = Files.createTempFile(target.getParent(), ".variant", ".tmp");
+                try {
+                    Files.write(temp, jpeg);
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        };
+    }
+
+    public void deleteVariants(Path original) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            try {
+                Files.deleteIfExists(variantPath(original, variant));
+            } catch (IOException e) {
+                log.warn("Could not delete {} variant of {}", variant.suffix(), original.getFileName(), e);
+            }
+        }
+    }
+
+    private static boolean hasAllVariants(VariantTarget target) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (!target.exists(variant)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void generateVariants(String name, ImageSource source, VariantTarget target) {
+        if (hasAllVariants(target)) {
+            return;
+        }
+
+        try (InputStream inputStream = source.open()) {
+            if (inputStream == null) {
+                return;
+            }
+            // Decode once, then shrink each rendition from the previous (larger) one
+            BufferedImage original = ImageIO.read(inputStream);
+            if (original == null) {
+                log.debug("No image reader for {}, variants not generated", name);
+                return;
+            }
+
+            BufferedImage current = toRgb(original);
+            for (ImageVariant variant : ImageVariant.values()) {
+                current = scaleDown(current, variant.getMaxDimension());
+                if (!target.exists(variant)) {
+                    target.write(variant, encodeJpeg(current));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate variants for {}", name, e);
+        }
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage scaleDown(BufferedImage image, int maxDimension) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = (double) maxDimension / Math.max(width, height);
+        if (scale >= 1.0) {
+            return image;
+        }
+
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,242 @@
+package com.ecom.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads a product import manifest one row at a time, so memory does not grow with
+// the file. CSV needs a header naming its columns (name and price at least; quoted
+// fields as in RFC 4180); NDJSON has one object per line with the same keys.
+// A row that cannot be read comes back with an error and the next row is read.
+// A CSV syntax error that leaves nothing to resynchronise on (an unterminated quote,
+// an over-long record) makes next() throw IllegalArgumentException; so does a bad
+// header in readHeader(), which callers run before handling any row.
+class ImportManifestReader implements Closeable {
+
+    static final int MAX_ROW_CHARS = 64 * 1024;
+
+    static class Row {
+        final long number;
+        final String name;
+        final String description;
+        final String price;
+        final String image;
+        final String error;
+
+        private Row(long number, String name, String description, String price, String image, String error) {
+            this.number = number;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.image = image;
+            this.error = error;
+        }
+
+        static Row failed(long number, String error) {
+            return new Row(number, null, null, null, null, error);
+        }
+    }
+
+    private final PushbackReader reader;
+
+    private final ProductImportService.Format format;
+
+    private final ObjectMapper objectMapper;
+
+    // CSV only: column index of each known key
+    private Map<String, Integer> columns;
+
+    private long rowNumber;
+
+    ImportManifestReader(InputStream inputStream, ProductImportService.Format format, ObjectMapper objectMapper) {
+        this.reader = new PushbackReader(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    // Null at the end of the manifest
+    Row next() throws IOException {
+        return format == ProductImportService.Format.CSV ? nextCsvRow() : nextJsonRow();
+    }
+
+    // Number of the row next() reads next
+    long nextRowNumber() {
+        return rowNumber + 1;
+    }
+
+    private Row nextCsvRow() throws IOException {
+        readHeader();
+        List<String> fields = readRecord();
+        while (fields != null && isBlank(fields)) {
+            fields = readRecord();
+        }
+        if (fields == null) {
+            return null;
+        }
+        rowNumber++;
+        if (fields.size() != columns.size()) {
+            return Row.failed(rowNumber, "Expected " + columns.size() + " fields but found " + fields.size());
+        }
+        return new Row(rowNumber, field(fields, "name"), field(fields, "description"),
+                field(fields, "price"), field(fields, "image"), null);
+    }
+
+    // No-op for NDJSON and after the first call
+    void readHeader() throws IOException {
+        if (format != ProductImportService.Format.CSV || columns != null) {
+            return;
+        }
+        List<String> header = readRecord();
+        if (header == null || isBlank(header)) {
+            throw new IllegalArgumentException("The manifest is empty");
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+            // A UTF-8 byte order mark left by spreadsheet exports
+            if (i == 0 && column.startsWith("\uFEFF")) {
+                column = column.substring(1);
+            }
+            if (columns.put(column, i) != null) {
+                throw new IllegalArgumentException("Column " + column + " appears twice in the header");
+            }
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("The header needs at least the columns name and price");
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // One record, which may span lines inside quotes; null at the end of input
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        int length = 0;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Quoted field is not terminated");
+                }
+                if (empty) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            empty = false;
+            // Quoted newlines leave nothing to resynchronise on, so an over-long record ends the manifest
+            if (++length > MAX_ROW_CHARS) {
+                throw new IllegalArgumentException("Row is longer than " + MAX_ROW_CHARS + " characters");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.unread(next);
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        return fields.size() == 1 && fields.get(0).isBlank();
+    }
+
+    private Row nextJsonRow() throws IOException {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        rowNumber++;
+        if (line.length() > MAX_ROW_CHARS) {
+            return Row.failed(rowNumber, "Row is longer than " + MAX_ROW_CHARS + " characters");
+        }
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return Row.failed(rowNumber, "Not valid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return Row.failed(rowNumber, "Expected a JSON object");
+        }
+        return new Row(rowNumber, text(node, "name"), text(node, "description"),
+                text(node, "price"), text(node, "image"), null);
+    }
+
+    private static String text(JsonNode node, String key) {
+        JsonNode value = node.get(key);
+        if (value == null || value.isNull() || value.isContainerNode()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    // Keeps at most one character past the limit so the caller can tell the line was too long
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n') {
+            if (c != '\r' && line.length() <= MAX_ROW_CHARS) {
+                line.append((char) c);
+            }
+            c = reader.read();
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecom.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// OTPs in a map keyed by email, expired by a hashed timer wheel: each entry is
+// also filed in the wheel slot of its deadline tick, and a ticker thread sweeps
+// one slot per tick. Lookups and inserts are O(1) and no thread ever scans the
+// whole map. Pending OTPs are per instance and do not survive a restart.
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Entry>[] wheel;
+
+    private final long tickMillis;
+
+    private final long startMillis;
+
+    private long sweptTick;
+
+    private final ScheduledExecutorService ticker;
+
+    private static class Entry {
+        final String email;
+        final byte[] otp;
+        final long deadlineMillis;
+        final long deadlineTick;
+
+        Entry(String email, byte[] otp, long deadlineMillis, long deadlineTick) {
+            this.email = email;
+            this.otp = otp;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore(@Value("${otp.memory.wheel-size:512}") int wheelSize,
+                            @Value("${otp.memory.tick-ms:1000}") long tickMillis,
+                            MeterRegistry meterRegistry) {
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = System.currentTimeMillis();
+        Gauge.builder("otp.store.size", entries, Map::size)
+                .description("Pending OTPs held in memory")
+                .register(meterRegistry);
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(String email, String otp, Duration validity) {
+        long deadlineMillis = System.currentTimeMillis() + validity.toMillis();
+        // Round up so an entry is never swept before its deadline
+        long deadlineTick = (deadlineMillis - startMillis + tickMillis - 1) / tickMillis;
+        Entry entry = new Entry(email, otp.getBytes(StandardCharsets.UTF_8), deadlineMillis, deadlineTick);
+        entries.put(email, entry);
+        wheel[(int) (deadlineTick % wheel.length)].add(entry);
+    }
+
+    @Override
+    public boolean verify(String email, String otp) {
+        Entry entry = entries.get(email);
+        if (entry == null || otp == null) {
+            return false;
+        }
+        // The ticker may lag by up to one tick, so check the deadline itself
+        if (System.currentTimeMillis() > entry.deadlineMillis) {
+            return false;
+        }
+        return MessageDigest.isEqual(entry.otp, otp.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Sweeps every slot the clock has passed since the last run. Entries further
+    // than one revolution away stay in their slot until their own tick comes round.
+    private void advance() {
+        long currentTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+        for (; sweptTick <= currentTick; sweptTick++) {
+            Iterator<Entry> slot = wheel[(int) (sweptTick % wheel.length)].iterator();
+            while (slot.hasNext()) {
+                Entry entry = slot.next();
+                if (entry.deadlineTick <= sweptTick) {
+                    slot.remove();
+                    // A newer OTP for the same email has its own slot; leave it alone
+                    entries.remove(entry.email, entry);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecom.service;
+
+import com.ecom.model.ImageBlob;
+import com.ecom.repository.ImageBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Counts in the image_blobs table. Each change commits on its own: the blob
+// on disk is written or deleted right away, so the count must not roll back
+// with a caller's transaction (or silently join one that already committed).
+@Service
+public class JpaBlobReferenceStore implements BlobReferenceStore {
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void addReference(String hash, long byteSize) {
+        imageBlobRepository.addReference(hash, byteSize);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean removeReference(String hash) {
+        imageBlobRepository.removeReference(hash);
+        return imageBlobRepository.deleteIfUnreferenced(hash) > 0;
+    }
+
+    @Override
+    public int referenceCount(String hash) {
+        return imageBlobRepository.findById(hash).map(ImageBlob::getRefCount).orElse(0);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean clearReferences(String hash, int expectedCount) {
+        if (expectedCount == 0) {
+            return !imageBlobRepository.existsById(hash);
+        }
+        return imageBlobRepository.deleteIfCount(hash, expectedCount) > 0;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecom.service;
+
+import com.ecom.model.OtpVerification;
+import com.ecom.repository.OtpVerificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// OTPs in the otp_verifications table, for deployments with more than one
+// instance. Expired and verified rows are removed by a scheduled batch purge.
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "jdbc")
+public class JpaOtpStore implements OtpStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaOtpStore.class);
+
+    @Autowired
+    private OtpVerificationRepository otpVerificationRepository;
+
+    @Value("${otp.jdbc.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    @Override
+    @Transactional
+    public void put(String email, String otp, Duration validity) {
+        LocalDateTime expiryTime = LocalDateTime.now().plus(validity);
+        OtpVerification otpVerification = otpVerificationRepository.findByEmail(email).orElse(null);
+        if (otpVerification == null) {
+            otpVerification = new OtpVerification(email, otp, expiryTime);
+        } else {
+            otpVerification.setOtp(otp);
+            otpVerification.setExpiryTime(expiryTime);
+            otpVerification.setVerified(false);
+        }
+        otpVerificationRepository.save(otpVerification);
+    }
+
+    @Override
+    @Transactional
+    public boolean verify(String email, String otp) {
+        OtpVerification otpVerification = otpVerificationRepository.findByEmailAndOtp(email, otp).orElse(null);
+        if (otpVerification == null || otpVerification.isExpired()) {
+            return false;
+        }
+        otpVerificationRepository.markVerified(otpVerification.getId());
+        return true;
+    }
+
+    // Short batches so the purge never holds locks on a large slice of the table
+    @Scheduled(fixedDelayString = "${otp.jdbc.purge-interval-ms:60000}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        long purged = 0;
+        List<Long> ids;
+        do {
+            ids = otpVerificationRepository.findPurgeableIds(now, PageRequest.of(0, purgeBatchSize));
+            if (!ids.isEmpty()) {
+                otpVerificationRepository.deleteAllByIdInBatch(ids);
+                purged += ids.size();
+            }
+        } while (ids.size() == purgeBatchSize);
+        if (purged > 0) {
+            log.debug("Purged {} expired or verified OTP rows", purged);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecom.service;
+
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Moves images stored as uploads/{products,users}/<prefix><uuid>.<ext> into the
+// content-addressed blob store. Each row is rehomed on its own: copy into a blob,
+// switch the column if it still holds the old name, then delete the old file.
+// Safe to interrupt and rerun; rows that are already migrated are skipped by the query.
+@Component
+public class LegacyImageMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyImageMigration.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    private interface PathUpdate {
+        boolean replace(Long id, String oldPath, String newPath);
+    }
+
+    @Value("${file.storage.migrate-legacy-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${file.storage.migrate-legacy-batch-size:500}")
+    private int batchSize;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            migrate();
+        }
+    }
+
+    public void migrate() {
+        int products = migrate(
+                after -> productRepository.findIdsWithLegacyImagePath(after, PageRequest.of(0, batchSize)),
+                id -> productRepository.findImagePathById(id).orElse(null),
+                fileStorageService::rehomeProductImage,
+                (id, oldPath, newPath) -> productRepository.replaceImagePath(id, oldPath, newPath) > 0,
+                fileStorageService::deleteProductImage);
+        int users = migrate(
+                after -> userRepository.findIdsWithLegacyProfileImagePath(after, PageRequest.of(0, batchSize)),
+                id -> userRepository.findProfileImagePathById(id).orElse(null),
+                fileStorageService::rehomeUserImage,
+                (id, oldPath, newPath) -> userRepository.replaceProfileImagePath(id, oldPath, newPath) > 0,
+                fileStorageService::deleteUserImage);
+        if (products > 0 || users > 0) {
+            log.info("Moved {} product and {} profile images into the blob store", products, users);
+        }
+    }
+
+    private int migrate(Function<Long, List<Long>> nextIds,
+                        Function<Long, String> currentPath,
+                        Function<String, String> rehome,
+                        PathUpdate replacePath,
+                        Consumer<String> delete) {
+        int migrated = 0;
+        long after = 0;
+        List<Long> ids;
+        while (!(ids = nextIds.apply(after)).isEmpty()) {
+            for (Long id : ids) {
+                after = id;
+                String legacyName = currentPath.apply(id);
+                if (legacyName == null || !FileStorageService.isLegacyName(legacyName)) {
+                    continue;
+                }
+                try {
+                    String blobName = rehome.apply(legacyName);
+                    if (blobName == null) {
+                        log.warn("Image {} of row {} is missing, leaving the reference as is", legacyName, id);
+                        continue;
+                    }
+                    if (replacePath.replace(id, legacyName, blobName)) {
+                        delete.accept(legacyName);
+                        migrated++;
+                    } else {
+                        // Changed concurrently; drop the reference taken for it
+                        delete.accept(blobName);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not move image {} of row {}", legacyName, id, e);
+                }
+            }
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,198 @@
+package com.ecom.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Bounded outgoing-mail queue drained by worker threads that each keep
+// one SMTP connection open across messages. Failed sends are retried with
+// exponential backoff; a full queue is reported to the caller right away.
+@Service
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final JavaMailSenderImpl mailSender;
+
+    private final BlockingQueue<OutgoingMail> queue;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final ScheduledExecutorService retryScheduler;
+
+    private volatile boolean running = true;
+
+    private final Timer sentTimer;
+
+    private final Timer failedTimer;
+
+    private final Counter droppedCounter;
+
+    private static class OutgoingMail {
+        final SimpleMailMessage message;
+        final int attempt;
+
+        OutgoingMail(SimpleMailMessage message, int attempt) {
+            this.message = message;
+            this.attempt = attempt;
+        }
+    }
+
+    public MailDispatcher(JavaMailSenderImpl mailSender,
+                          @Value("${mail.dispatch.workers:4}") int workerCount,
+                          @Value("${mail.dispatch.queue-capacity:1000}") int queueCapacity,
+                          @Value("${mail.dispatch.max-attempts:5}") int maxAttempts,
+                          @Value("${mail.dispatch.initial-backoff-ms:500}") long initialBackoffMillis,
+                          MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.sentTimer = sendTimer(meterRegistry, "success");
+        this.failedTimer = sendTimer(meterRegistry, "failure");
+        this.droppedCounter = Counter.builder("mail.dropped")
+                .description("Messages abandoned after exhausting retries or finding the queue full")
+                .register(meterRegistry);
+        Gauge.builder("mail.queue.size", queue, BlockingQueue::size)
+                .description("Messages waiting for an SMTP worker")
+                .register(meterRegistry);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "mail-dispatch-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("mail.send")
+                .description("SMTP send latency per attempt, including connection setup")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public void enqueue(SimpleMailMessage message) {
+        if (!queue.offer(new OutgoingMail(message, 1))) {
+            droppedCounter.increment();
+            throw new MailQueueFullException("Mail queue is full, try again shortly");
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void drain() {
+        Transport transport = null;
+        try {
+            while (running) {
+                OutgoingMail mail = queue.poll(1, TimeUnit.SECONDS);
+                if (mail == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    transport = ensureConnected(transport);
+                    MimeMessage mimeMessage = mailSender.createMimeMessage();
+                    mail.message.copyTo(new MimeMailMessage(mimeMessage));
+                    mimeMessage.saveChanges();
+                    transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                    sentTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                } catch (MessagingException | RuntimeException e) {
+                    failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    // Drop the connection; the next message reconnects
+                    close(transport);
+                    transport = null;
+                    retry(mail, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    private Transport ensureConnected(Transport transport) throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        close(transport);
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        Transport connected = mailSender.getSession().getTransport(protocol);
+        connected.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return connected;
+    }
+
+    private void retry(OutgoingMail mail, Exception cause) {
+        if (!running) {
+            return;
+        }
+        if (mail.attempt >= maxAttempts) {
+            log.error("Giving up on mail to {} after {} attempts", String.join(",", mail.message.getTo()), mail.attempt, cause);
+            droppedCounter.increment();
+            return;
+        }
+        long backoff = Math.min(initialBackoffMillis << (mail.attempt - 1), MAX_BACKOFF_MILLIS);
+        log.warn("Mail send failed (attempt {}), retrying in {} ms: {}", mail.attempt, backoff, cause.getMessage());
+        OutgoingMail next = new OutgoingMail(mail.message, mail.attempt + 1);
+        retryScheduler.schedule(() -> {
+            if (!queue.offer(next)) {
+                droppedCounter.increment();
+                log.error("Mail queue is full, dropping retry for {}", String.join(",", mail.message.getTo()));
+            }
+        }, backoff, TimeUnit.MILLISECONDS);
+    }
+
+    private static void close(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP transport", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        retryScheduler.shutdownNow();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+}
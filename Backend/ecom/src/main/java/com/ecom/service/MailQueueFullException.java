@@ -0,0 +1,8 @@
+package com.ecom.service;
+
+public class MailQueueFullException extends RuntimeException {
+
+    public MailQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -1,14 +1,29 @@
 package com.ecom.service;
 
 import com.ecom.model.Order;
+import com.ecom.model.OrderSummary;
 import com.ecom.model.Product;
+import com.ecom.model.SellerDailySales;
 import com.ecom.model.User;
 import com.ecom.repository.OrderRepository;
 import com.ecom.repository.ProductRepository;
+import com.ecom.repository.SellerDailySalesRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
@@ -16,9 +31,92 @@ public class OrderService {
     private OrderRepository orderRepository;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private ImageDeletionOutbox imageDeletionOutbox;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private SellerDailySalesRepository sellerDailySalesRepository;
 
+    @Transactional
     public Order createOrder(User user, Product product) {
         Order order = new Order(user, product, LocalDateTime.now());
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        recordSales(List.of(product), savedOrder.getOrderDate());
+        return savedOrder;
+    }
+
+    // One transaction for the whole cart: a single lookup, a conditional
+    // purchase UPDATE per listing and batched order inserts. No row is locked
+    // up front; if any listing was sold or changed since it was read, the
+    // whole checkout rolls back with ProductAlreadySoldException.
+    @Transactional
+    public List<Order> checkout(User buyer, List<Long> productIds) {
+        Set<Long> requestedIds = new LinkedHashSet<>(productIds);
+        List<Product> products = productRepository.findAllById(requestedIds);
+
+        Set<Long> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+        List<Long> unavailable = requestedIds.stream()
+                .filter(id -> !found.contains(id))
+                .collect(Collectors.toList());
+        products.stream()
+                .filter(product -> !product.isAvailable())
+                .forEach(product -> unavailable.add(product.getId()));
+        if (!unavailable.isEmpty()) {
+            throw new ProductAlreadySoldException(unavailable);
+        }
+
+        for (Product product : products) {
+            if (productRepository.purchase(product.getId(), product.getVersion()) == 0) {
+                throw new ProductAlreadySoldException(List.of(product.getId()));
+            }
+        }
+
+        LocalDateTime orderDate = LocalDateTime.now();
+        List<Order> orders = products.stream()
+                .map(product -> new Order(buyer, product, orderDate))
+                .collect(Collectors.toList());
+        orderRepository.saveAll(orders);
+        recordSales(products, orderDate);
+
+        // purchase() cleared the paths; the images are released after commit
+        imageDeletionOutbox.deleteProductImages(products.stream()
+                .map(Product::getImagePath)
+                .collect(Collectors.toList()));
+
+        eventPublisher.publishEvent(ProductChangedEvent.removed(products));
+        return orders;
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<OrderSummary> getOrderHistory(Long userId, int page, int size) {
+        return orderRepository.findSummariesByUserId(userId, PageRequest.of(page, size));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SellerDailySales> getSellerSales(Long sellerId, LocalDate from, LocalDate to) {
+        return sellerDailySalesRepository.findBySellerIdAndSaleDateBetweenOrderBySaleDate(sellerId, from, to);
+    }
+
+    // Orders a user placed as a buyer, removed in short transactions before the account row
+    @Transactional
+    public int deleteOrderChunkOfBuyer(Long userId, int size) {
+        List<Long> ids = orderRepository.findIdsByUserId(userId, PageRequest.of(0, size));
+        return ids.isEmpty() ? 0 : orderRepository.deleteByIdIn(ids);
+    }
+
+    // One upsert per seller, in seller id order so concurrent checkouts
+    // touching the same sellers lock their rollup rows in the same order
+    private void recordSales(List<Product> products, LocalDateTime orderDate) {
+        Map<Long, BigDecimal> revenueBySeller = new TreeMap<>();
+        Map<Long, Long> countBySeller = new TreeMap<>();
+        for (Product product : products) {
+            Long sellerId = product.getSeller().getId();
+            revenueBySeller.merge(sellerId, product.getPrice(), BigDecimal::add);
+            countBySeller.merge(sellerId, 1L, Long::sum);
+        }
+        LocalDate saleDate = orderDate.toLocalDate();
+        revenueBySeller.forEach((sellerId, revenue) ->
+                sellerDailySalesRepository.addSales(sellerId, saleDate, countBySeller.get(sellerId), revenue));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package com.ecom.service;
+
+import com.ecom.repository.ImageDeletionRepository;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Removes stored images that no product or profile refers to: uploads whose
+// transaction rolled back, images whose outbox row was swept but not released,
+// counts that drifted. Stored names are checked against image_path and
+// profile_image_path in batches. An image is only removed once two passes in a row
+// found it unreferenced with the same reference count, so an upload whose row had
+// not committed yet when the first pass saw it is left alone.
+@Component
+public class OrphanImageReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanImageReconciler.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageDeletionRepository imageDeletionRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private BlobReferenceStore blobReferenceStore;
+
+    @Value("${file.storage.reconcile-batch-size:500}")
+    private int batchSize;
+
+    // Stored name -> reference count, as found unreferenced by the previous pass
+    private Map<String, Integer> suspects = new HashMap<>();
+
+    @Scheduled(initialDelayString = "${file.storage.reconcile-interval-ms:3600000}",
+               fixedDelayString = "${file.storage.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        Map<String, Integer> unreferenced = new HashMap<>();
+        List<String> batch = new ArrayList<>(batchSize);
+        fileStorageService.forEachStoredImage(fileName -> {
+            batch.add(fileName);
+            if (batch.size() == batchSize) {
+                collectUnreferenced(batch, unreferenced);
+                batch.clear();
+            }
+        });
+        collectUnreferenced(batch, unreferenced);
+
+        int removed = 0;
+        for (Map.Entry<String, Integer> candidate : new ArrayList<>(unreferenced.entrySet())) {
+            String fileName = candidate.getKey();
+            if (!Objects.equals(suspects.get(fileName), candidate.getValue())) {
+                continue;
+            }
+            try {
+                if (fileStorageService.purgeImage(fileName, candidate.getValue())) {
+                    removed++;
+                }
+                unreferenced.remove(fileName);
+            } catch (RuntimeException e) {
+                log.warn("Could not remove unreferenced image {}", fileName, e);
+            }
+        }
+        suspects = unreferenced;
+        if (removed > 0 || !unreferenced.isEmpty()) {
+            log.info("Removed {} unreferenced images; {} more are checked again next pass", removed, unreferenced.size());
+        }
+    }
+
+    // Names queued in the outbox count as referenced; the sweeper releases those
+    private void collectUnreferenced(List<String> fileNames, Map<String, Integer> unreferenced) {
+        if (fileNames.isEmpty()) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>(productRepository.findImagePathsIn(fileNames));
+        referenced.addAll(userRepository.findProfileImagePathsIn(fileNames));
+        referenced.addAll(imageDeletionRepository.findFileNamesIn(fileNames));
+        for (String fileName : fileNames) {
+            if (!referenced.contains(fileName)) {
+                unreferenced.put(fileName, blobReferenceStore.referenceCount(StagedBlob.hashOf(fileName)));
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecom.service;
+
+import java.time.Duration;
+
+// Where pending signup OTPs live until they are verified or expire.
+// Selected with otp.store=memory (default) or otp.store=jdbc.
+public interface OtpStore {
+
+    // Replaces any OTP already pending for this email
+    void put(String email, String otp, Duration validity);
+
+    // True if the OTP matches the pending one for this email and has not expired
+    boolean verify(String email, String otp);
+}
@@ -0,0 +1,347 @@
+package com.ecom.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+// One append-only pack file of PackedFileStorageService.
+//
+// record:  magic | key length (short) | key | type length (byte) | type | last modified (long)
+//          | data length (int) | crc32 of data (int) | data
+// footer:  per record: key length | key | type length | type | last modified | record offset
+//          | data offset | data length; then footer offset | record count | footer magic
+//
+// The open segment is grown to its full capacity when created and mapped read-only
+// once. Records are appended with positional writes, which the shared page cache
+// makes visible through the mapping. A full segment gets its footer and is truncated
+// to size ("sealed"), so startup only reads footers; a segment left open by a crash
+// is scanned record by record up to the first incomplete one. Deleted records are
+// noted by offset in a .del file beside the segment rather than rewriting anything.
+class PackSegment {
+
+    private static final int RECORD_MAGIC = 0x504B5231;
+    private static final int FOOTER_MAGIC = 0x504B4631;
+    private static final int TRAILER_BYTES = 12;
+
+    static class Entry {
+        final PackSegment segment;
+        final String key;
+        final String contentType;
+        final long lastModified;
+        final int recordOffset;
+        final int dataOffset;
+        final int dataLength;
+
+        Entry(PackSegment segment, String key, String contentType, long lastModified,
+              int recordOffset, int dataOffset, int dataLength) {
+            this.segment = segment;
+            this.key = key;
+            this.contentType = contentType;
+            this.lastModified = lastModified;
+            this.recordOffset = recordOffset;
+            this.dataOffset = dataOffset;
+            this.dataLength = dataLength;
+        }
+
+        int recordLength() {
+            return dataOffset + dataLength - recordOffset;
+        }
+
+        ByteBuffer content() {
+            return segment.mapping.slice(dataOffset, dataLength);
+        }
+    }
+
+    private final long id;
+
+    private final Path path;
+
+    private final Path deletedLog;
+
+    private final int capacity;
+
+    // Every record ever appended, in order; the footer lists them all
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Set<Integer> deletedOffsets = new HashSet<>();
+
+    // Bytes of records the index still points at
+    private final AtomicLong liveBytes = new AtomicLong();
+
+    private MappedByteBuffer mapping;
+
+    // Open only while the segment accepts appends
+    private FileChannel channel;
+
+    private int writePosition;
+
+    private int footerBytes;
+
+    private PackSegment(long id, Path path, int capacity) {
+        this.id = id;
+        this.path = path;
+        this.deletedLog = path.resolveSibling(path.getFileName().toString().replace(".pack", ".del"));
+        this.capacity = capacity;
+    }
+
+    static Path pathOf(Path directory, long id) {
+        return directory.resolve(String.format("segment-%010d.pack", id));
+    }
+
+    static long idOf(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring("segment-".length(), fileName.length() - ".pack".length()));
+    }
+
+    static PackSegment create(Path directory, long id, int capacity) throws IOException {
+        PackSegment segment = new PackSegment(id, pathOf(directory, id), capacity);
+        segment.channel = FileChannel.open(segment.path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.channel.write(ByteBuffer.allocate(1), capacity - 1);
+        segment.mapping = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+        return segment;
+    }
+
+    static PackSegment open(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Segment " + path + " is larger than 2 GB");
+        }
+        PackSegment segment = new PackSegment(idOf(path), path, (int) size);
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            segment.mapping = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (!segment.readFooter()) {
+            segment.scanRecords();
+            segment.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        segment.readDeletedLog();
+        return segment;
+    }
+
+    private boolean readFooter() {
+        if (capacity < TRAILER_BYTES || mapping.getInt(capacity - 4) != FOOTER_MAGIC) {
+            return false;
+        }
+        int footerOffset = mapping.getInt(capacity - TRAILER_BYTES);
+        int count = mapping.getInt(capacity - 8);
+        ByteBuffer footer = mapping.slice(footerOffset, capacity - TRAILER_BYTES - footerOffset);
+        for (int i = 0; i < count; i++) {
+            String key = readString(footer, footer.getShort() & 0xFFFF);
+            String contentType = readString(footer, footer.get() & 0xFF);
+            long lastModified = footer.getLong();
+            int recordOffset = footer.getInt();
+            int dataOffset = footer.getInt();
+            int dataLength = footer.getInt();
+            entries.add(new Entry(this, key, contentType, lastModified, recordOffset, dataOffset, dataLength));
+        }
+        writePosition = footerOffset;
+        return true;
+    }
+
+    private void scanRecords() {
+        ByteBuffer records = mapping.duplicate();
+        int position = 0;
+        while (position + 4 <= capacity && records.getInt(position) == RECORD_MAGIC) {
+            try {
+                records.position(position + 4);
+                String key = readString(records, records.getShort() & 0xFFFF);
+                String contentType = readString(records, records.get() & 0xFF);
+                long lastModified = records.getLong();
+                int dataLength = records.getInt();
+                int crc = records.getInt();
+                int dataOffset = records.position();
+                if (dataLength < 0 || dataOffset + dataLength > capacity
+                        || crc != crcOf(mapping.slice(dataOffset, dataLength))) {
+                    break;
+                }
+                Entry entry = new Entry(this, key, contentType, lastModified, position, dataOffset, dataLength);
+                entries.add(entry);
+                footerBytes += footerLength(entry);
+                position = dataOffset + dataLength;
+            } catch (RuntimeException e) {
+                // Torn record at the end of a segment that was never sealed
+                break;
+            }
+        }
+        writePosition = position;
+    }
+
+    private void readDeletedLog() throws IOException {
+        if (Files.exists(deletedLog)) {
+            for (String line : Files.readAllLines(deletedLog, StandardCharsets.US_ASCII)) {
+                if (!line.isEmpty()) {
+                    deletedOffsets.add(Integer.parseInt(line));
+                }
+            }
+        }
+    }
+
+    // Null when the record does not fit; the caller seals this segment and retries in a new one.
+    // Callers serialize appends.
+    Entry append(String key, String contentType, long lastModified, ByteBuffer data, int crc) throws IOException {
+        Entry entry = reserve(key, contentType, lastModified, data.remaining(), crc);
+        if (entry == null) {
+            return null;
+        }
+        long position = entry.dataOffset;
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+        return commit(entry);
+    }
+
+    Entry append(String key, String contentType, long lastModified, FileChannel source, int length, int crc) throws IOException {
+        Entry entry = reserve(key, contentType, lastModified, length, crc);
+        if (entry == null) {
+            return null;
+        }
+        long transferred = 0;
+        while (transferred < length) {
+            long count = channel.transferFrom(source, entry.dataOffset + transferred, length - transferred);
+            if (count <= 0) {
+                throw new IOException("Short read while packing " + key);
+            }
+            transferred += count;
+        }
+        return commit(entry);
+    }
+
+    private Entry reserve(String key, String contentType, long lastModified, int length, int crc) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] typeBytes = contentType.getBytes(StandardCharsets.US_ASCII);
+        int headerLength = 4 + 2 + keyBytes.length + 1 + typeBytes.length + 8 + 4 + 4;
+        Entry entry = new Entry(this, key, contentType, lastModified,
+                writePosition, writePosition + headerLength, length);
+        long end = (long) entry.dataOffset + length + footerBytes + footerLength(entry) + TRAILER_BYTES;
+        if (channel == null || end > capacity) {
+            return null;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerLength);
+        header.putInt(RECORD_MAGIC);
+        header.putShort((short) keyBytes.length).put(keyBytes);
+        header.put((byte) typeBytes.length).put(typeBytes);
+        header.putLong(lastModified);
+        header.putInt(length);
+        header.putInt(crc);
+        header.flip();
+        long position = writePosition;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        return entry;
+    }
+
+    private Entry commit(Entry entry) {
+        entries.add(entry);
+        footerBytes += footerLength(entry);
+        writePosition = entry.dataOffset + entry.dataLength;
+        return entry;
+    }
+
+    // Writes the footer and trims the file; the segment is read-only from here on
+    void seal() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(footerBytes + TRAILER_BYTES);
+        for (Entry entry : entries) {
+            byte[] keyBytes = entry.key.getBytes(StandardCharsets.UTF_8);
+            byte[] typeBytes = entry.contentType.getBytes(StandardCharsets.US_ASCII);
+            footer.putShort((short) keyBytes.length).put(keyBytes);
+            footer.put((byte) typeBytes.length).put(typeBytes);
+            footer.putLong(entry.lastModified);
+            footer.putInt(entry.recordOffset);
+            footer.putInt(entry.dataOffset);
+            footer.putInt(entry.dataLength);
+        }
+        footer.putInt(writePosition);
+        footer.putInt(entries.size());
+        footer.putInt(FOOTER_MAGIC);
+        footer.flip();
+        long position = writePosition;
+        while (footer.hasRemaining()) {
+            position += channel.write(footer, position);
+        }
+        channel.truncate(position);
+        channel.force(true);
+        channel.close();
+        channel = null;
+        // The mapping still spans the old capacity, but nothing past the last record is ever read
+    }
+
+    void markDeleted(Entry entry) throws IOException {
+        deletedOffsets.add(entry.recordOffset);
+        Files.writeString(deletedLog, entry.recordOffset + "\n", StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    boolean isDeleted(Entry entry) {
+        return deletedOffsets.contains(entry.recordOffset);
+    }
+
+    // Readers holding slices keep the mapping alive; the kernel drops the file with the last one
+    void delete() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(deletedLog);
+        Files.deleteIfExists(path);
+    }
+
+    void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    boolean isSealed() {
+        return channel == null;
+    }
+
+    int usedBytes() {
+        return writePosition;
+    }
+
+    AtomicLong liveBytes() {
+        return liveBytes;
+    }
+
+    private static int footerLength(Entry entry) {
+        return 2 + entry.key.getBytes(StandardCharsets.UTF_8).length
+                + 1 + entry.contentType.length() + 8 + 4 + 4 + 4;
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int crcOf(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return (int) crc.getValue();
+    }
+}
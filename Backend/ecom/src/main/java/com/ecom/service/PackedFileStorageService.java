@@ -0,0 +1,665 @@
+package com.ecom.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Packs images into large append-only segment files under packed/ instead of one
+// file each, so serving an image is a hash lookup plus a read from a memory mapping:
+// no open(), no directory lookup, no inode per image. The key -> (segment, offset)
+// index lives in memory and is rebuilt from segment footers at startup. Deleted
+// records stay in their segment until a background pass copies the live records
+// of mostly-dead segments forward and drops the old file.
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "packed")
+public class PackedFileStorageService implements FileStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(PackedFileStorageService.class);
+
+    private static final String VARIANT_SEPARATOR = "__";
+
+    private final Path packedLocation;
+    private final Path stagingLocation;
+    private final int segmentSize;
+    private final double compactionThreshold;
+
+    private final Map<String, PackSegment.Entry> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, PackSegment> segments = new ConcurrentSkipListMap<>();
+    private PackSegment activeSegment;
+
+    // Serializes appends, deletions and compaction moves; reads never take it
+    private final Lock writeLock = new ReentrantLock();
+
+    // Keeps a blob's reference count and its records in step, as in DiskFileStorageService
+    private final Lock[] blobLocks = new Lock[64];
+
+    // Names of the old flat layout predate both backends; the disk store serves and deletes them
+    private final DiskFileStorageService legacyStorage;
+
+    private final ImageVariantService imageVariantService;
+
+    private final BlobReferenceStore blobReferenceStore;
+
+    private final Timer storeTimer;
+    private final Timer loadTimer;
+    private final Timer resolveTimer;
+    private final Timer deleteTimer;
+    private final DistributionSummary storedBytes;
+    private final DistributionSummary loadedBytes;
+    private final Counter deduplicatedCounter;
+    private final Counter compactedCounter;
+
+    @Value("${image.variants.backfill-on-startup:false}")
+    private boolean backfillVariantsOnStartup;
+
+    public PackedFileStorageService(@Value("${file.storage.location:uploads}") String fileStorageLocation,
+                                    @Value("${file.storage.packed.segment-size:268435456}") int segmentSize,
+                                    @Value("${file.storage.packed.compaction-threshold:0.5}") double compactionThreshold,
+                                    ImageVariantService imageVariantService,
+                                    BlobReferenceStore blobReferenceStore,
+                                    MeterRegistry meterRegistry) {
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        this.imageVariantService = imageVariantService;
+        this.blobReferenceStore = blobReferenceStore;
+        this.legacyStorage = new DiskFileStorageService(fileStorageLocation, imageVariantService,
+                blobReferenceStore, meterRegistry);
+        this.storeTimer = operationTimer(meterRegistry, "store");
+        this.loadTimer = operationTimer(meterRegistry, "load");
+        this.resolveTimer = operationTimer(meterRegistry, "resolve");
+        this.deleteTimer = operationTimer(meterRegistry, "delete");
+        this.storedBytes = operationBytes(meterRegistry, "store");
+        this.loadedBytes = operationBytes(meterRegistry, "load");
+        this.deduplicatedCounter = Counter.builder("file.storage.deduplicated")
+                .description("Uploads whose content was already stored")
+                .register(meterRegistry);
+        this.compactedCounter = Counter.builder("file.storage.packed.compactions")
+                .description("Segments rewritten to reclaim deleted records")
+                .register(meterRegistry);
+        Gauge.builder("file.storage.packed.segments", segments, Map::size)
+                .description("Segment files on disk")
+                .register(meterRegistry);
+        Gauge.builder("file.storage.packed.bytes", this, storage -> storage.totalBytes(true))
+                .description("Bytes of live records in segment files")
+                .baseUnit("bytes")
+                .tag("state", "live")
+                .register(meterRegistry);
+        Gauge.builder("file.storage.packed.bytes", this, storage -> storage.totalBytes(false))
+                .description("Bytes used in segment files, including deleted records")
+                .baseUnit("bytes")
+                .tag("state", "used")
+                .register(meterRegistry);
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+
+        Path baseLocation = Paths.get(fileStorageLocation).toAbsolutePath().normalize();
+        this.packedLocation = Paths.get(baseLocation.toString(), "packed");
+        this.stagingLocation = Paths.get(baseLocation.toString(), "staging");
+        try {
+            Files.createDirectories(this.packedLocation);
+            Files.createDirectories(this.stagingLocation);
+            loadSegments();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open the packed image store in " + packedLocation, e);
+        }
+    }
+
+    private static Timer operationTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("file.storage.operations")
+                .description("Time spent in file storage operations")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static DistributionSummary operationBytes(MeterRegistry meterRegistry, String operation) {
+        return DistributionSummary.builder("file.storage.bytes")
+                .description("Size of files written to or read from storage")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    // Later segments win when a key appears twice (a compaction interrupted after copying)
+    private void loadSegments() throws IOException {
+        try (Stream<Path> files = Files.list(packedLocation)) {
+            for (Path path : (Iterable<Path>) files.filter(file -> file.getFileName().toString().endsWith(".pack"))::iterator) {
+                PackSegment segment = PackSegment.open(path);
+                segments.put(segment.getId(), segment);
+            }
+        }
+        for (PackSegment segment : segments.values()) {
+            for (PackSegment.Entry entry : segment.entries()) {
+                if (!segment.isDeleted(entry)) {
+                    index.put(entry.key, entry);
+                }
+            }
+        }
+        for (PackSegment.Entry entry : index.values()) {
+            entry.segment.liveBytes().addAndGet(entry.recordLength());
+        }
+
+        // Only the newest segment keeps accepting appends; any other one left open by a crash is sealed now
+        for (PackSegment segment : segments.values()) {
+            if (!segment.isSealed() && segment != segments.lastEntry().getValue()) {
+                segment.seal();
+            }
+        }
+        activeSegment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (activeSegment == null || activeSegment.isSealed()) {
+            activeSegment = newSegment();
+        }
+        log.info("Opened {} image segments with {} live records", segments.size(), index.size());
+    }
+
+    private PackSegment newSegment() throws IOException {
+        long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        PackSegment segment = PackSegment.create(packedLocation, id, segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private long totalBytes(boolean live) {
+        long total = 0;
+        for (PackSegment segment : segments.values()) {
+            total += live ? segment.liveBytes().get() : segment.usedBytes();
+        }
+        return total;
+    }
+
+    @Override
+    public String storeUserImage(MultipartFile file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeProductImage(MultipartFile file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeUserImage(File file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeProductImage(File file) {
+        return enqueueVariants(storeFile(file));
+    }
+
+    @Override
+    public String storeProductImage(InputStream content) {
+        try {
+            return enqueueVariants(storeBlob(content));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store image", e);
+        }
+    }
+
+    @Override
+    public String rehomeUserImage(String legacyFileName) {
+        return enqueueVariants(rehome(legacyStorage.resolveUserImage(legacyFileName)));
+    }
+
+    @Override
+    public String rehomeProductImage(String legacyFileName) {
+        return enqueueVariants(rehome(legacyStorage.resolveProductImage(legacyFileName)));
+    }
+
+    private String enqueueVariants(String fileName) {
+        if (fileName != null) {
+            String hash = StagedBlob.hashOf(fileName);
+            imageVariantService.submit(hash, imageSource(hash), variantTarget(hash));
+        }
+        return fileName;
+    }
+
+    // Old flat-layout files are not visited; the files backend backfills those
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillVariants() {
+        if (!backfillVariantsOnStartup) {
+            return;
+        }
+        int submitted = 0;
+        for (String key : new ArrayList<>(index.keySet())) {
+            if (!key.contains(VARIANT_SEPARATOR)
+                    && imageVariantService.backfill(key, imageSource(key), variantTarget(key))) {
+                submitted++;
+            }
+        }
+        log.info("Queued {} images for variant backfill", submitted);
+    }
+
+    private ImageVariantService.ImageSource imageSource(String hash) {
+        return () -> {
+            PackSegment.Entry entry = index.get(hash);
+            return entry == null ? null : new ByteArrayInputStream(copyOf(entry.content()));
+        };
+    }
+
+    private ImageVariantService.VariantTarget variantTarget(String hash) {
+        return new ImageVariantService.VariantTarget() {
+            @Override
+            public boolean exists(ImageVariant variant) {
+                return index.containsKey(variantKey(hash, variant));
+            }
+
+            // Under the blob lock, so a variant is never packed for an original deleted meanwhile
+            @Override
+            public void write(ImageVariant variant, byte[] jpeg) throws IOException {
+                Lock lock = lockFor(hash);
+                lock.lock();
+                try {
+                    if (index.containsKey(hash)) {
+                        ByteBuffer data = ByteBuffer.wrap(jpeg);
+                        append(variantKey(hash, variant), "image/jpeg", System.currentTimeMillis(),
+                                data, PackSegment.crcOf(data));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    private static String variantKey(String hash, ImageVariant variant) {
+        return hash + VARIANT_SEPARATOR + variant.suffix();
+    }
+
+    private String storeFile(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        try (InputStream inputStream = file.getInputStream()) {
+            return storeBlob(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename(), e);
+        }
+    }
+
+    private String storeFile(File file) {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            return storeBlob(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store file " + file.getName(), e);
+        }
+    }
+
+    private String rehome(StoredFile legacyFile) {
+        if (legacyFile == null) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(legacyFile.getPath())) {
+            return storeBlob(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not rehome file " + legacyFile.getPath(), e);
+        }
+    }
+
+    private String storeBlob(InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        try (StagedBlob staged = StagedBlob.stage(inputStream, stagingLocation)) {
+            storedBytes.record(staged.getSize());
+            // A record has to fit into an empty segment next to its footer line
+            if (staged.getSize() > segmentSize - 4096) {
+                throw new IOException("File of " + staged.getSize() + " bytes is too large for segments of " + segmentSize);
+            }
+            String hash = staged.getHash();
+            Lock lock = lockFor(hash);
+            lock.lock();
+            try {
+                blobReferenceStore.addReference(hash, staged.getSize());
+                if (index.containsKey(hash)) {
+                    deduplicatedCounter.increment();
+                } else {
+                    String contentType = StoredFile.detectImageType(staged.getHeader(), staged.getHeader().length);
+                    try (FileChannel source = FileChannel.open(staged.getPath(), StandardOpenOption.READ)) {
+                        append(hash, contentType != null ? contentType : "application/octet-stream",
+                                System.currentTimeMillis(), source, (int) staged.getSize(), (int) staged.getCrc());
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            return StagedBlob.blobName(hash);
+        } finally {
+            storeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void append(String key, String contentType, long lastModified, ByteBuffer data, int crc) throws IOException {
+        writeLock.lock();
+        try {
+            PackSegment.Entry entry = activeSegment.append(key, contentType, lastModified, data.duplicate(), crc);
+            if (entry == null) {
+                rollSegment();
+                entry = activeSegment.append(key, contentType, lastModified, data.duplicate(), crc);
+            }
+            publish(entry);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(String key, String contentType, long lastModified, FileChannel source, int length, int crc) throws IOException {
+        writeLock.lock();
+        try {
+            PackSegment.Entry entry = activeSegment.append(key, contentType, lastModified, source, length, crc);
+            if (entry == null) {
+                rollSegment();
+                entry = activeSegment.append(key, contentType, lastModified, source, length, crc);
+            }
+            publish(entry);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        activeSegment.seal();
+        activeSegment = newSegment();
+    }
+
+    // Caller holds writeLock
+    private void publish(PackSegment.Entry entry) throws IOException {
+        entry.segment.liveBytes().addAndGet(entry.recordLength());
+        PackSegment.Entry previous = index.put(entry.key, entry);
+        if (previous != null) {
+            retire(previous);
+        }
+    }
+
+    // Caller holds writeLock
+    private void retire(PackSegment.Entry entry) throws IOException {
+        entry.segment.liveBytes().addAndGet(-entry.recordLength());
+        entry.segment.markDeleted(entry);
+    }
+
+    private Lock lockFor(String hash) {
+        return blobLocks[Integer.parseInt(hash.substring(0, 4), 16) % blobLocks.length];
+    }
+
+    @Override
+    public byte[] loadUserImage(String fileName) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return legacyStorage.loadUserImage(fileName);
+        }
+        return load(fileName);
+    }
+
+    @Override
+    public byte[] loadProductImage(String fileName) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return legacyStorage.loadProductImage(fileName);
+        }
+        return load(fileName);
+    }
+
+    private byte[] load(String fileName) {
+        long start = System.nanoTime();
+        try {
+            PackSegment.Entry entry = index.get(StagedBlob.hashOf(fileName));
+            if (entry == null) {
+                throw new RuntimeException("Could not read file: " + fileName);
+            }
+            byte[] content = copyOf(entry.content());
+            loadedBytes.record(content.length);
+            return content;
+        } finally {
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static byte[] copyOf(ByteBuffer content) {
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public StoredFile resolveUserImage(String fileName) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return legacyStorage.resolveUserImage(fileName);
+        }
+        return resolve(StagedBlob.hashOf(fileName));
+    }
+
+    @Override
+    public StoredFile resolveProductImage(String fileName) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return legacyStorage.resolveProductImage(fileName);
+        }
+        return resolve(StagedBlob.hashOf(fileName));
+    }
+
+    @Override
+    public StoredFile resolveUserImage(String fileName, ImageVariant variant) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return legacyStorage.resolveUserImage(fileName, variant);
+        }
+        return resolveVariant(StagedBlob.hashOf(fileName), variant);
+    }
+
+    @Override
+    public StoredFile resolveProductImage(String fileName, ImageVariant variant) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return legacyStorage.resolveProductImage(fileName, variant);
+        }
+        return resolveVariant(StagedBlob.hashOf(fileName), variant);
+    }
+
+    private StoredFile resolveVariant(String hash, ImageVariant variant) {
+        if (variant != null) {
+            StoredFile variantFile = resolve(variantKey(hash, variant));
+            if (variantFile != null) {
+                return variantFile;
+            }
+        }
+        return resolve(hash);
+    }
+
+    private StoredFile resolve(String key) {
+        long start = System.nanoTime();
+        try {
+            PackSegment.Entry entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            return new StoredFile(key, entry.content(), entry.lastModified, entry.contentType);
+        } finally {
+            resolveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void deleteUserImage(String fileName) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            legacyStorage.deleteUserImage(fileName);
+            return;
+        }
+        delete(StagedBlob.hashOf(fileName));
+    }
+
+    @Override
+    public void deleteProductImage(String fileName) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            legacyStorage.deleteProductImage(fileName);
+            return;
+        }
+        delete(StagedBlob.hashOf(fileName));
+    }
+
+    private void delete(String hash) {
+        long start = System.nanoTime();
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (blobReferenceStore.removeReference(hash)) {
+                removeWithVariants(hash);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not delete image " + hash, e);
+        } finally {
+            lock.unlock();
+            deleteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void forEachStoredImage(Consumer<String> action) {
+        for (String key : index.keySet()) {
+            if (!key.contains(VARIANT_SEPARATOR)) {
+                action.accept(StagedBlob.blobName(key));
+            }
+        }
+    }
+
+    @Override
+    public boolean purgeImage(String fileName, int expectedReferences) {
+        if (FileStorageService.isLegacyName(fileName)) {
+            return false;
+        }
+        String hash = StagedBlob.hashOf(fileName);
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (!blobReferenceStore.clearReferences(hash, expectedReferences)) {
+                return false;
+            }
+            removeWithVariants(hash);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not purge image " + hash, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeWithVariants(String hash) throws IOException {
+        writeLock.lock();
+        try {
+            remove(hash);
+            for (ImageVariant variant : ImageVariant.values()) {
+                remove(variantKey(hash, variant));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Caller holds writeLock
+    private void remove(String key) throws IOException {
+        PackSegment.Entry entry = index.remove(key);
+        if (entry != null) {
+            retire(entry);
+        }
+    }
+
+    // Copies the live records of sealed segments that are mostly deleted into the active
+    // segment, one record per lock hold so uploads are never stalled for a whole segment
+    @Scheduled(fixedDelayString = "${file.storage.packed.compaction-interval-ms:60000}")
+    public void compact() {
+        for (PackSegment segment : new ArrayList<>(segments.values())) {
+            if (!segment.isSealed() || segment.usedBytes() == 0) {
+                continue;
+            }
+            double deadRatio = 1.0 - (double) segment.liveBytes().get() / segment.usedBytes();
+            if (deadRatio < compactionThreshold) {
+                continue;
+            }
+            try {
+                compact(segment);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not compact image segment {}", segment.getId(), e);
+            }
+        }
+    }
+
+    private void compact(PackSegment segment) throws IOException {
+        List<PackSegment.Entry> entries = new ArrayList<>(segment.entries());
+        for (PackSegment.Entry entry : entries) {
+            writeLock.lock();
+            try {
+                if (index.get(entry.key) != entry) {
+                    continue;
+                }
+                ByteBuffer data = entry.content();
+                PackSegment.Entry copy = activeSegment.append(entry.key, entry.contentType, entry.lastModified,
+                        data.duplicate(), PackSegment.crcOf(data));
+                if (copy == null) {
+                    rollSegment();
+                    copy = activeSegment.append(entry.key, entry.contentType, entry.lastModified,
+                            data.duplicate(), PackSegment.crcOf(data));
+                }
+                copy.segment.liveBytes().addAndGet(copy.recordLength());
+                entry.segment.liveBytes().addAndGet(-entry.recordLength());
+                index.put(entry.key, copy);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        writeLock.lock();
+        try {
+            // The copies must be on disk before the only other copy goes; segments rolled
+            // over above were forced when they were sealed
+            activeSegment.force();
+            segments.remove(segment.getId());
+            segment.delete();
+        } finally {
+            writeLock.unlock();
+        }
+        compactedCounter.increment();
+        log.info("Compacted image segment {} ({} records examined)", segment.getId(), entries.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            activeSegment.force();
+        } catch (IOException e) {
+            log.warn("Could not flush the active image segment", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
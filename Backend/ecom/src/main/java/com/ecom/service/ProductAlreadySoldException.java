@@ -0,0 +1,17 @@
+package com.ecom.service;
+
+import java.util.List;
+
+public class ProductAlreadySoldException extends RuntimeException {
+
+    private final List<Long> productIds;
+
+    public ProductAlreadySoldException(List<Long> productIds) {
+        super("Product already sold: " + productIds);
+        this.productIds = productIds;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecom.service;
+
+import com.ecom.model.Product;
+import com.ecom.model.ProductSummary;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Published by ProductService on every catalog write so that derived
+// read structures can update themselves incrementally.
+public class ProductChangedEvent {
+
+    private final List<ProductSummary> saved;
+
+    private final Collection<Long> removedIds;
+
+    private final Set<Long> sellerIds;
+
+    private ProductChangedEvent(List<ProductSummary> saved, Collection<Long> removedIds, Set<Long> sellerIds) {
+        this.saved = saved;
+        this.removedIds = removedIds;
+        this.sellerIds = sellerIds;
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(List.of(ProductSummary.of(product)), Collections.emptyList(),
+                Set.of(product.getSeller().getId()));
+    }
+
+    public static ProductChangedEvent saved(List<ProductSummary> summaries) {
+        Set<Long> sellerIds = summaries.stream().map(ProductSummary::getSellerId).collect(Collectors.toSet());
+        return new ProductChangedEvent(summaries, Collections.emptyList(), sellerIds);
+    }
+
+    public static ProductChangedEvent removed(Long sellerId, Collection<Long> productIds) {
+        return new ProductChangedEvent(Collections.emptyList(), productIds, Set.of(sellerId));
+    }
+
+    public static ProductChangedEvent removed(Collection<Product> products) {
+        List<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toList());
+        Set<Long> sellerIds = products.stream().map(product -> product.getSeller().getId()).collect(Collectors.toSet());
+        return new ProductChangedEvent(Collections.emptyList(), productIds, sellerIds);
+    }
+
+    public List<ProductSummary> getSaved() {
+        return saved;
+    }
+
+    public Collection<Long> getRemovedIds() {
+        return removedIds;
+    }
+
+    public Set<Long> getSellerIds() {
+        return sellerIds;
+    }
+}
@@ -0,0 +1,408 @@
+package com.ecom.service;
+
+import com.ecom.model.Product;
+import com.ecom.model.ProductSummary;
+import com.ecom.model.User;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+// Creates many listings from a manifest (CSV or NDJSON) plus an optional zip of the
+// images it names. The manifest is read row by row and handled in batches: the
+// batch's images are stored on a small worker pool, then its rows are written with
+// one JDBC batch insert. Rows that fail are reported by number and skipped, so
+// memory depends on the batch size, not on the size of the import.
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    public enum Format {
+        CSV, NDJSON;
+
+        // From an explicit format parameter, else from the manifest's file extension; null if neither says
+        public static Format of(String format, String fileName) {
+            if (format != null && !format.isBlank()) {
+                try {
+                    return valueOf(format.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            return null;
+        }
+    }
+
+    public static class RowError {
+        private final long row;
+        private final String message;
+
+        RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public static class Report {
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+        private RowError fatalError;
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public List<RowError> getErrors() {
+            return errors;
+        }
+
+        // More rows failed than maxReportedErrors; only the first ones are listed
+        public boolean isErrorsTruncated() {
+            return errorsTruncated;
+        }
+
+        // The manifest broke off at this row; rows before it were handled, none after it
+        public RowError getFatalError() {
+            return fatalError;
+        }
+    }
+
+    private static class PendingRow {
+        final ImportManifestReader.Row row;
+        final Product product;
+        Future<String> storedImage;
+
+        PendingRow(ImportManifestReader.Row row, Product product) {
+            this.row = row;
+            this.product = product;
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ImageDeletionOutbox imageDeletionOutbox;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ExecutorService imageWorkers;
+
+    private final Semaphore importSlots;
+
+    private final int batchSize;
+
+    private final int maxReportedErrors;
+
+    private final long maxImageBytes;
+
+    public ProductImportService(@Value("${import.image-workers:4}") int imageWorkerCount,
+                                @Value("${import.max-concurrent:2}") int maxConcurrentImports,
+                                @Value("${import.batch-size:200}") int batchSize,
+                                @Value("${import.max-reported-errors:1000}") int maxReportedErrors,
+                                @Value("${image.max-upload-size:10MB}") DataSize maxImageSize) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.imageWorkers = Executors.newFixedThreadPool(imageWorkerCount, threadFactory);
+        this.importSlots = new Semaphore(maxConcurrentImports);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxImageBytes = maxImageSize.toBytes();
+    }
+
+    public boolean tryStartImport() {
+        return importSlots.tryAcquire();
+    }
+
+    public void finishImport() {
+        importSlots.release();
+    }
+
+    // seller only needs an id; summaries of the new listings show the name the users table holds now
+    public Report importProducts(User seller, MultipartFile manifest, Format format, MultipartFile images) throws IOException {
+        seller.setName(userRepository.findNameById(seller.getId()).orElse(null));
+        Path archive = null;
+        ZipFile zip = null;
+        try {
+            // The manifest names images in any order, so the archive is read through its central directory
+            if (images != null && !images.isEmpty()) {
+                archive = Files.createTempFile("product-import", ".zip");
+                try (InputStream inputStream = images.getInputStream()) {
+                    Files.copy(inputStream, archive, StandardCopyOption.REPLACE_EXISTING);
+                }
+                try {
+                    zip = new ZipFile(archive.toFile());
+                } catch (ZipException e) {
+                    throw new IllegalArgumentException("The images file is not a zip archive");
+                }
+            }
+
+            Report report = new Report();
+            try (ImportManifestReader reader = new ImportManifestReader(manifest.getInputStream(), format, objectMapper)) {
+                // Up to here nothing is saved, so a bad header still fails the whole request
+                reader.readHeader();
+                List<PendingRow> batch = new ArrayList<>(batchSize);
+                ImportManifestReader.Row row;
+                while ((row = nextRow(reader, report)) != null) {
+                    String error = row.error != null ? row.error : validate(row, zip);
+                    if (error != null) {
+                        fail(report, row.number, error);
+                        continue;
+                    }
+                    batch.add(new PendingRow(row, toProduct(row, seller)));
+                    if (batch.size() == batchSize) {
+                        importBatch(batch, zip, report);
+                        batch.clear();
+                    }
+                }
+                importBatch(batch, zip, report);
+            }
+            return report;
+        } finally {
+            if (zip != null) {
+                zip.close();
+            }
+            if (archive != null) {
+                Files.deleteIfExists(archive);
+            }
+        }
+    }
+
+    // Earlier batches are committed by now, so a broken manifest ends the import with a report
+    // of what was saved rather than failing it; the rows read so far are still imported
+    private static ImportManifestReader.Row nextRow(ImportManifestReader reader, Report report) throws IOException {
+        long rowNumber = reader.nextRowNumber();
+        try {
+            return reader.next();
+        } catch (IllegalArgumentException e) {
+            report.fatalError = new RowError(rowNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private String validate(ImportManifestReader.Row row, ZipFile zip) {
+        if (row.name == null) {
+            return "Name is required";
+        }
+        if (row.name.length() > MAX_TEXT_LENGTH) {
+            return "Name is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.description != null && row.description.length() > MAX_TEXT_LENGTH) {
+            return "Description is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.price == null) {
+            return "Price is required";
+        }
+        BigDecimal price;
+        try {
+            price = new BigDecimal(row.price);
+        } catch (NumberFormatException e) {
+            return "Price " + row.price + " is not a number";
+        }
+        if (price.signum() <= 0) {
+            return "Price must be greater than zero";
+        }
+        if (price.stripTrailingZeros().scale() > 2) {
+            return "Price has more than two decimal places";
+        }
+        if (row.image != null) {
+            if (zip == null) {
+                return "Image " + row.image + " given but no images archive was uploaded";
+            }
+            ZipEntry entry = zip.getEntry(row.image);
+            if (entry == null || entry.isDirectory()) {
+                return "Image " + row.image + " is not in the images archive";
+            }
+            if (entry.getSize() > maxImageBytes) {
+                return "Image " + row.image + " is larger than " + DataSize.ofBytes(maxImageBytes).toMegabytes() + " MB";
+            }
+        }
+        return null;
+    }
+
+    private static Product toProduct(ImportManifestReader.Row row, User seller) {
+        Product product = new Product();
+        product.setName(row.name);
+        product.setDescription(row.description);
+        product.setPrice(new BigDecimal(row.price));
+        product.setSeller(seller);
+        return product;
+    }
+
+    private void importBatch(List<PendingRow> batch, ZipFile zip, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (PendingRow pending : batch) {
+            if (pending.row.image != null) {
+                ZipEntry entry = zip.getEntry(pending.row.image);
+                pending.storedImage = imageWorkers.submit(() -> {
+                    try (InputStream content = new SizeLimitedInputStream(zip.getInputStream(entry), maxImageBytes)) {
+                        return fileStorageService.storeProductImage(content);
+                    }
+                });
+            }
+        }
+
+        List<PendingRow> ready = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            if (pending.storedImage == null) {
+                ready.add(pending);
+                continue;
+            }
+            try {
+                pending.product.setImagePath(pending.storedImage.get());
+                ready.add(pending);
+            } catch (ExecutionException e) {
+                log.warn("Could not store image {} of import row {}", pending.row.image, pending.row.number, e.getCause());
+                fail(report, pending.row.number, "Image " + pending.row.image + " could not be stored");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            }
+        }
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        List<Product> products = ready.stream().map(pending -> pending.product).toList();
+        List<Long> ids;
+        try {
+            ids = productRepository.insertAll(products);
+        } catch (RuntimeException e) {
+            log.warn("Could not insert a batch of {} imported products", products.size(), e);
+            // The stored images have no rows referring to them; release them like any dropped image
+            imageDeletionOutbox.deleteProductImages(products.stream().map(Product::getImagePath).toList());
+            for (PendingRow pending : ready) {
+                fail(report, pending.row.number, "Could not be saved");
+            }
+            return;
+        }
+
+        List<ProductSummary> summaries = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            product.setId(ids.get(i));
+            summaries.add(ProductSummary.of(product));
+        }
+        report.imported += products.size();
+        eventPublisher.publishEvent(ProductChangedEvent.saved(summaries));
+    }
+
+    private void fail(Report report, long rowNumber, String message) {
+        report.failed++;
+        if (report.errors.size() < maxReportedErrors) {
+            report.errors.add(new RowError(rowNumber, message));
+        } else {
+            report.errorsTruncated = true;
+        }
+    }
+
+    // Zip headers can understate an entry's size; this stops reading at the limit either way
+    private static class SizeLimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        SizeLimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(long bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("Image is larger than the upload limit");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imageWorkers.shutdownNow();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecom.service;
+
+import com.ecom.config.ReadRouting;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// Size-bounded (W-TinyLFU) cache of already-serialized JSON for product
+// detail pages and per-seller listings. Entries are dropped precisely on
+// product writes via ProductChangedEvent. Hits, misses, evictions and sizes are
+// published as cache.* meters tagged cache=products.details / products.sellers.
+@Service
+public class ProductResponseCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<Long, CachedResponse> productDetails;
+
+    private final Cache<Long, CachedResponse> sellerListings;
+
+    private static class CachedResponse {
+        final byte[] body;
+        final Long sellerId;
+
+        CachedResponse(byte[] body, Long sellerId) {
+            this.body = body;
+            this.sellerId = sellerId;
+        }
+    }
+
+    public ProductResponseCache(ObjectMapper objectMapper,
+                                @Value("${cache.products.detail-max-bytes:33554432}") long detailMaxBytes,
+                                @Value("${cache.products.seller-max-bytes:33554432}") long sellerMaxBytes,
+                                MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.productDetails = Caffeine.newBuilder()
+                .maximumWeight(detailMaxBytes)
+                .weigher((Long id, CachedResponse response) -> response.body.length)
+                .recordStats()
+                .build();
+        this.sellerListings = Caffeine.newBuilder()
+                .maximumWeight(sellerMaxBytes)
+                .weigher((Long id, CachedResponse response) -> response.body.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productDetails, "products.details");
+        CaffeineCacheMetrics.monitor(meterRegistry, sellerListings, "products.sellers");
+    }
+
+    // Returns null (and caches nothing) when the loader finds no product.
+    // Entries live until the next write, so loaders read from the primary:
+    // a lagging replica would otherwise pin a stale response in the cache.
+    public byte[] getProductDetail(Long productId, Supplier<Map<String, Object>> loader) {
+        CachedResponse cached = productDetails.get(productId, id -> {
+            Map<String, Object> response = ReadRouting.onPrimary(loader);
+            return response == null ? null : new CachedResponse(serialize(response), (Long) response.get("sellerId"));
+        });
+        return cached == null ? null : cached.body;
+    }
+
+    public byte[] getSellerListing(Long sellerId, Supplier<List<Map<String, Object>>> loader) {
+        CachedResponse cached = sellerListings.get(sellerId, id -> {
+            List<Map<String, Object>> response = ReadRouting.onPrimary(loader);
+            return response == null ? null : new CachedResponse(serialize(response), id);
+        });
+        return cached == null ? null : cached.body;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        event.getSaved().forEach(product -> productDetails.invalidate(product.getId()));
+        productDetails.invalidateAll(event.getRemovedIds());
+        sellerListings.invalidateAll(event.getSellerIds());
+    }
+
+    // Seller name is embedded in every detail page, so profile changes drop them all
+    public void evictSeller(Long sellerId) {
+        sellerListings.invalidate(sellerId);
+        productDetails.asMap().values().removeIf(response -> Objects.equals(response.sellerId, sellerId));
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize product response", e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.ecom.service;
+
+import com.ecom.model.ProductSummary;
+import com.ecom.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// In-memory inverted index over product name and description with prefix
+// matching and BM25 ranking. Kept in sync through ProductChangedEvent and
+// rebuilt from the products table at startup.
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Name tokens count this many times towards term frequency
+    private static final int NAME_BOOST = 2;
+    // Prefix-expanded terms score lower than exact matches
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int REBUILD_PAGE_SIZE = 5000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (productId -> term frequency)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+
+    private long totalLength;
+
+    // Ids deleted while a rebuild is in flight, so stale pages do not resurrect them
+    private Set<Long> removedDuringRebuild;
+
+    private static class IndexedProduct {
+        final ProductSummary summary;
+        final Map<String, Integer> termFrequencies;
+        final int length;
+
+        IndexedProduct(ProductSummary summary, Map<String, Integer> termFrequencies, int length) {
+            this.summary = summary;
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+    }
+
+    public List<ProductSummary> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : new HashSet<>(queryTerms)) {
+                scoreTerm(queryTerm, 1.0, documentCount, averageLength, scores);
+                if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+                    int expansions = 0;
+                    for (String term : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                        if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        scoreTerm(term, PREFIX_WEIGHT, documentCount, averageLength, scores);
+                    }
+                }
+            }
+
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<ProductSummary> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                results.add(documents.get(top.poll().getKey()).summary);
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scoreTerm(String term, double weight, int documentCount, double averageLength, Map<Long, Double> scores) {
+        Map<Long, Integer> posting = postings.get(term);
+        if (posting == null) {
+            return;
+        }
+        int documentFrequency = posting.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+            int tf = entry.getValue();
+            int length = documents.get(entry.getKey()).length;
+            double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+            scores.merge(entry.getKey(), weight * idf * norm, Double::sum);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<IndexedProduct> analyzed = event.getSaved().stream()
+                .map(ProductSearchIndex::analyze)
+                .collect(Collectors.toList());
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : event.getRemovedIds()) {
+                remove(id);
+                if (removedDuringRebuild != null) {
+                    removedDuringRebuild.add(id);
+                }
+            }
+            for (IndexedProduct product : analyzed) {
+                put(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            removedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long after = 0L;
+            List<ProductSummary> page;
+            do {
+                page = productRepository.findSummariesAfter(after, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                after = page.get(page.size() - 1).getId();
+
+                // Tokenizing dominates the rebuild, so spread it over the common pool
+                List<IndexedProduct> analyzed = page.parallelStream()
+                        .map(ProductSearchIndex::analyze)
+                        .collect(Collectors.toList());
+
+                lock.writeLock().lock();
+                try {
+                    for (IndexedProduct product : analyzed) {
+                        Long id = product.summary.getId();
+                        if (!removedDuringRebuild.contains(id) && !documents.containsKey(id)) {
+                            put(product);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } while (page.size() == REBUILD_PAGE_SIZE);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                removedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("Product search index rebuilt with {} products in {} ms",
+                size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void put(IndexedProduct product) {
+        Long id = product.summary.getId();
+        remove(id);
+        documents.put(id, product);
+        totalLength += product.length;
+        for (Map.Entry<String, Integer> entry : product.termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(id, entry.getValue());
+        }
+    }
+
+    private void remove(Long id) {
+        IndexedProduct existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length;
+        for (String term : existing.termFrequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static IndexedProduct analyze(ProductSummary summary) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = 0;
+        for (String term : tokenize(summary.getName())) {
+            termFrequencies.merge(term, NAME_BOOST, Integer::sum);
+            length++;
+        }
+        for (String term : tokenize(summary.getDescription())) {
+            termFrequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+        return new IndexedProduct(summary, termFrequencies, Math.max(length, 1));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
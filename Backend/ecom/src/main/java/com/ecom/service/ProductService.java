@@ -1,9 +1,15 @@
 package com.ecom.service;
 
 import com.ecom.model.Product;
+import com.ecom.model.ProductStatus;
+import com.ecom.model.ProductSummary;
 import com.ecom.model.User;
 import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,89 +20,153 @@ import java.util.List;
 @Service
 public class ProductService {
 
+    public static class SellerChunk {
+        private final Long lastId;
+        private final int deleted;
+        private final int kept;
+
+        SellerChunk(Long lastId, int deleted, int kept) {
+            this.lastId = lastId;
+            this.deleted = deleted;
+            this.kept = kept;
+        }
+
+        public Long getLastId() {
+            return lastId;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        // Sold listings left in place without a seller
+        public int getKept() {
+            return kept;
+        }
+    }
+
     @Autowired
     private ProductRepository productRepository;
     
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageDeletionOutbox imageDeletionOutbox;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getAllProductSummaries() {
+        return productRepository.findAllSummaries();
+    }
+
+    // Returns up to limit + 1 rows so the caller can tell whether another page exists
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductPage(Long after, int limit) {
+        return productRepository.findSummariesAfter(after == null ? 0L : after, PageRequest.of(0, limit + 1));
+    }
+
+    @Transactional(readOnly = true)
     public Product getProductById(Long id) {
         return productRepository.findById(id).orElse(null);
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getProductsBySeller(User seller) {
-        return productRepository.findBySeller(seller);
+        return productRepository.findBySellerAndStatus(seller, ProductStatus.AVAILABLE);
     }
 
+    // Stored names come from the content alone, so the image is stored first and the row saved once
     public Product createProduct(Product product, MultipartFile image) throws IOException {
-        // First save the product to get an ID
-        Product savedProduct = productRepository.save(product);
-        
         if (image != null && !image.isEmpty()) {
-            String fileName = fileStorageService.storeProductImage(image, savedProduct.getId());
-            savedProduct.setImagePath(fileName);
-            savedProduct = productRepository.save(savedProduct);
+            product.setImagePath(fileStorageService.storeProductImage(image));
         }
+        Product savedProduct = productRepository.save(product);
         
+        // The seller may be an id-only reference; summaries show the current name
+        savedProduct.getSeller().setName(userRepository.findNameById(savedProduct.getSeller().getId()).orElse(null));
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
         return savedProduct;
     }
 
-    public Product updateProduct(Long id, Product updatedProduct, MultipartFile image) throws IOException {
+    public Product updateProduct(Long id, Long sellerId, Product updatedProduct, MultipartFile image) throws IOException {
         Product existingProduct = productRepository.findById(id).orElse(null);
-        if (existingProduct == null) {
+        if (existingProduct == null || !existingProduct.isAvailable()) {
             return null;
         }
+        if (!existingProduct.getSeller().getId().equals(sellerId)) {
+            throw new AccessDeniedException("Product " + id + " belongs to another seller");
+        }
 
         existingProduct.setName(updatedProduct.getName());
         existingProduct.setDescription(updatedProduct.getDescription());
         existingProduct.setPrice(updatedProduct.getPrice());
 
+        String replacedImagePath = null;
         if (image != null && !image.isEmpty()) {
-            // Delete old image if exists
-            if (existingProduct.getImagePath() != null) {
-                fileStorageService.deleteProductImage(existingProduct.getImagePath());
-            }
-            
-            // Store new image
-            String fileName = fileStorageService.storeProductImage(image, id);
-            existingProduct.setImagePath(fileName);
+            replacedImagePath = existingProduct.getImagePath();
+            existingProduct.setImagePath(fileStorageService.storeProductImage(image));
         }
 
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        // Only once nothing refers to it any more; if this is never reached the old image is an orphan, not a dangling path
+        if (replacedImagePath != null) {
+            imageDeletionOutbox.deleteProductImage(replacedImagePath);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
+        return savedProduct;
     }
 
-    public void deleteProduct(Long id) {
+    // Only AVAILABLE listings go; sold ones stay for the orders that refer to them.
+    // False if the listing is gone or was sold, possibly by a purchase racing this call.
+    @Transactional
+    public boolean deleteProduct(Long id) {
         Product product = getProductById(id);
-        if (product != null && product.getImagePath() != null) {
-            fileStorageService.deleteProductImage(product.getImagePath());
+        if (product == null || productRepository.deleteIfAvailable(id) == 0) {
+            return false;
+        }
+        if (product.getImagePath() != null) {
+            imageDeletionOutbox.deleteProductImage(product.getImagePath());
         }
-        productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.removed(product.getSeller().getId(), List.of(id)));
+        return true;
     }
     
-    public byte[] getProductImage(Long productId) {
-        Product product = getProductById(productId);
-        if (product != null && product.getImagePath() != null) {
-            return fileStorageService.loadProductImage(product.getImagePath());
-        }
-        return null;
+    @Transactional(readOnly = true)
+    public String getProductImagePath(Long productId) {
+        return productRepository.findImagePathById(productId).orElse(null);
     }
     
+    // One short transaction per chunk of a seller's listings, walked by id: the rows are
+    // locked, so none is sold meanwhile; AVAILABLE ones have their images queued for
+    // release and are removed with one set-based DELETE. SOLD ones stay for the orders
+    // that refer to them, without a seller. Null once the walk is past the last listing.
     @Transactional
-    public void deleteAllProductsByUser(User user) {
-        List<Product> userProducts = getProductsBySeller(user);
-        
-        // Delete each product and its associated image
-        for (Product product : userProducts) {
-            if (product.getImagePath() != null) {
-                fileStorageService.deleteProductImage(product.getImagePath());
-            }
+    public SellerChunk removeSellerChunk(Long sellerId, Long after, int size) {
+        List<Long> ids = productRepository.findIdsBySeller(sellerId, after, PageRequest.of(0, size));
+        if (ids.isEmpty()) {
+            return null;
         }
-        
-        // Delete all products from database
-        productRepository.deleteAllBySeller(user);
+        productRepository.lockForDeletion(ids);
+        imageDeletionOutbox.deleteProductImages(productRepository.findImagePathsByIdIn(ids));
+        int kept = productRepository.detachSoldByIdIn(ids);
+        int deleted = productRepository.deleteAvailableByIdIn(ids);
+        eventPublisher.publishEvent(ProductChangedEvent.removed(sellerId, ids));
+        return new SellerChunk(ids.get(ids.size() - 1), deleted, kept);
+    }
+
+    @Transactional(readOnly = true)
+    public long countProductsBySeller(Long sellerId) {
+        return productRepository.countBySeller(sellerId);
     }
-} 
\ No newline at end of file
+}
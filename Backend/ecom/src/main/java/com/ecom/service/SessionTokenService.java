@@ -0,0 +1,150 @@
+package com.ecom.service;
+
+import com.ecom.model.SessionUser;
+import com.ecom.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Issues and verifies HMAC-SHA256 signed session tokens of the form
+// userId.issuedAt.expiresAt.tokenId.name.signature (name and signature base64url).
+// Verification is pure CPU; revoked tokens are kept in memory until they expire.
+@Service
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Mac prototype;
+
+    private final long ttlSeconds;
+
+    // tokenId -> expiresAt, for tokens logged out before they expire
+    private final Map<String, Long> deniedTokens = new ConcurrentHashMap<>();
+
+    // userId -> epoch second; tokens issued up to then are rejected (deleted accounts)
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    public SessionTokenService(@Value("${auth.token.secret:}") String secret,
+                               @Value("${auth.token.ttl:12h}") Duration ttl) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            random.nextBytes(key);
+            log.warn("auth.token.secret is not set; using a random key, sessions will not survive a restart");
+        } else {
+            key = Base64.getDecoder().decode(secret);
+        }
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Could not initialise session token signing", e);
+        }
+        this.ttlSeconds = ttl.getSeconds();
+    }
+
+    public String issue(User user) {
+        long now = nowSeconds();
+        byte[] tokenId = new byte[9];
+        random.nextBytes(tokenId);
+        String name = user.getName() == null ? "" : user.getName();
+
+        String payload = user.getId() + "." + now + "." + (now + ttlSeconds) + "."
+                + ENCODER.encodeToString(tokenId) + "." + ENCODER.encodeToString(name.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    // Returns null for anything malformed, forged, expired or revoked
+    public SessionUser verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = token.substring(0, signatureStart);
+        String[] parts = payload.split("\\.", -1);
+        if (parts.length != 5) {
+            return null;
+        }
+
+        try {
+            byte[] signature = DECODER.decode(token.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return null;
+            }
+
+            Long userId = Long.valueOf(parts[0]);
+            long issuedAt = Long.parseLong(parts[1]);
+            long expiresAt = Long.parseLong(parts[2]);
+            String tokenId = parts[3];
+            if (expiresAt <= nowSeconds() || deniedTokens.containsKey(tokenId)) {
+                return null;
+            }
+            Long revokedAt = revokedUsers.get(userId);
+            if (revokedAt != null && issuedAt <= revokedAt) {
+                return null;
+            }
+
+            String name = new String(DECODER.decode(parts[4]), StandardCharsets.UTF_8);
+            return new SessionUser(userId, name.isEmpty() ? null : name, tokenId, issuedAt, expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public void revoke(SessionUser sessionUser) {
+        deniedTokens.put(sessionUser.getTokenId(), sessionUser.getExpiresAt());
+        purgeExpired();
+    }
+
+    public void revokeAllFor(Long userId) {
+        revokedUsers.put(userId, nowSeconds());
+        purgeExpired();
+    }
+
+    // Entries can go once every token they could match has expired anyway
+    private void purgeExpired() {
+        if (deniedTokens.size() + revokedUsers.size() < PURGE_THRESHOLD) {
+            return;
+        }
+        long now = nowSeconds();
+        deniedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + ttlSeconds <= now);
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException("Session token signing is unavailable", e);
+        }
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecom.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// An upload copied to a staging file, hashed on the way. The storage backends
+// decide from the hash whether the content is new before they keep any of it.
+class StagedBlob implements Closeable {
+
+    static final int HEADER_BYTES = 12;
+
+    private final Path path;
+
+    private final String hash;
+
+    private final long size;
+
+    private final long crc;
+
+    private final byte[] header;
+
+    private StagedBlob(Path path, String hash, long size, long crc, byte[] header) {
+        this.path = path;
+        this.hash = hash;
+        this.size = size;
+        this.crc = crc;
+        this.header = header;
+    }
+
+    static StagedBlob stage(InputStream inputStream, Path stagingLocation) throws IOException {
+        Path path = Files.createTempFile(stagingLocation, "upload", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            CRC32 crc = new CRC32();
+            byte[] header = new byte[HEADER_BYTES];
+            int headerLength = inputStream.readNBytes(header, 0, header.length);
+            long size;
+            try (OutputStream outputStream = new CheckedOutputStream(
+                    new DigestOutputStream(Files.newOutputStream(path), digest), crc)) {
+                outputStream.write(header, 0, headerLength);
+                size = headerLength + inputStream.transferTo(outputStream);
+            }
+            byte[] trimmedHeader = headerLength == header.length ? header : Arrays.copyOf(header, headerLength);
+            return new StagedBlob(path, HexFormat.of().formatHex(digest.digest()), size, crc.getValue(), trimmedHeader);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // ab/cd/<sha-256>: two levels of 256 directories keep every directory small
+    static String blobName(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    static String hashOf(String blobName) {
+        return blobName.substring(blobName.lastIndexOf('/') + 1);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    String getHash() {
+        return hash;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    long getCrc() {
+        return crc;
+    }
+
+    // The first bytes of the content, enough to recognise the image format
+    byte[] getHeader() {
+        return header;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecom.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Metadata for a stored file plus a zero-copy way to write any byte range of it.
+// Entries of a packed segment have no file of their own and are backed by a
+// slice of the segment's memory mapping instead of a path.
+public class StoredFile {
+
+    private final String name;
+
+    private final Path path;
+
+    private final ByteBuffer content;
+
+    private final long length;
+
+    private final long lastModified;
+
+    private final String contentType;
+
+    public StoredFile(Path path, long length, long lastModified, String contentType) {
+        this.name = path.getFileName().toString();
+        this.path = path;
+        this.content = null;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.contentType = contentType;
+    }
+
+    public StoredFile(String name, ByteBuffer content, long lastModified, String contentType) {
+        this.name = name;
+        this.path = null;
+        this.content = content;
+        this.length = content.remaining();
+        this.lastModified = lastModified;
+        this.contentType = contentType;
+    }
+
+    // Identifies the content served, for ETags; differs between an original and its variants
+    public String getName() {
+        return name;
+    }
+
+    // Null for packed entries
+    public Path getPath() {
+        return path;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    // FileChannel.transferTo lets the kernel move the bytes when the target allows it;
+    // mapped entries are written straight from the page cache
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        if (content != null) {
+            ByteBuffer range = content.slice(content.position() + (int) position, (int) count);
+            while (range.hasRemaining()) {
+                target.write(range);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long written = 0;
+            while (written < count) {
+                long transferred = channel.transferTo(position + written, count - written, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+        }
+    }
+
+    // Recognises the image formats we accept from their first bytes; null for anything else
+    static String detectImageType(byte[] header, int read) {
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return "image/png";
+        }
+        if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return "image/gif";
+        }
+        if (read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+}
@@ -1,13 +1,17 @@
 package com.ecom.service;
 
 import com.ecom.model.User;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.SellerDailySalesRepository;
 import com.ecom.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,11 +23,23 @@ public class UserService {
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private ImageDeletionOutbox imageDeletionOutbox;
+    
     @Autowired
     private OtpService otpService;
     
     @Autowired
-    private ProductService productService;
+    private SellerDailySalesRepository sellerDailySalesRepository;
+    
+    @Autowired
+    private ProductResponseCache productResponseCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public User authenticate(String email, String password) {
         Optional<User> userOpt = userRepository.findByEmail(email);
@@ -33,6 +49,7 @@ public class UserService {
         return null;
     }
 
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id).orElse(null);
     }
@@ -81,6 +98,7 @@ public class UserService {
             return null;
         }
 
+        boolean nameChanged = !Objects.equals(existingUser.getName(), updatedUser.getName());
         existingUser.setName(updatedUser.getName());
         existingUser.setProgramme(updatedUser.getProgramme());
         existingUser.setBranch(updatedUser.getBranch());
@@ -88,46 +106,45 @@ public class UserService {
         existingUser.setSemester(updatedUser.getSemester());
         existingUser.setPhoneNo(updatedUser.getPhoneNo());
 
+        String replacedImagePath = null;
         if (profileImage != null && !profileImage.isEmpty()) {
-            // Delete old image if exists
-            if (existingUser.getProfileImagePath() != null) {
-                fileStorageService.deleteUserImage(existingUser.getProfileImagePath());
-            }
-            
-            // Store new image
-            String fileName = fileStorageService.storeUserImage(profileImage, userId);
-            existingUser.setProfileImagePath(fileName);
+            replacedImagePath = existingUser.getProfileImagePath();
+            existingUser.setProfileImagePath(fileStorageService.storeUserImage(profileImage));
         }
 
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        if (replacedImagePath != null) {
+            imageDeletionOutbox.deleteUserImage(replacedImagePath);
+        }
+        if (nameChanged) {
+            productResponseCache.evictSeller(userId);
+            // Listings carry the seller's name; re-saving them updates the search index and the catalog snapshot
+            eventPublisher.publishEvent(ProductChangedEvent.saved(productRepository.findSummariesBySeller(userId)));
+        }
+        return savedUser;
     }
     
-    public byte[] getUserProfileImage(Long userId) {
-        User user = getUserById(userId);
-        if (user != null && user.getProfileImagePath() != null) {
-            return fileStorageService.loadUserImage(user.getProfileImagePath());
-        }
-        return null;
+    @Transactional(readOnly = true)
+    public String getProfileImagePath(Long userId) {
+        return userRepository.findProfileImagePathById(userId).orElse(null);
     }
     
+    // Last step of an account deletion, once AccountDeletionService has removed the
+    // user's listings and orders chunk by chunk
     @Transactional
     public boolean deleteUser(Long userId) {
         User user = getUserById(userId);
         if (user == null) {
             return false;
         }
-        
-        // Delete all products associated with the user
-        productService.deleteAllProductsByUser(user);
-        
-        // Delete user profile image if exists
+
+        sellerDailySalesRepository.deleteBySellerId(userId);
         if (user.getProfileImagePath() != null) {
-            fileStorageService.deleteUserImage(user.getProfileImagePath());
+            imageDeletionOutbox.deleteUserImage(user.getProfileImagePath());
         }
-        
-        // Delete user from database
         userRepository.delete(user);
-        
+        productResponseCache.evictSeller(userId);
+
         return true;
     }
-} 
\ No newline at end of file
+}
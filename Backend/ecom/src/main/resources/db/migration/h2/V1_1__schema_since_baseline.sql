@@ -0,0 +1,12 @@
+-- H2 counterpart of db/migration/mysql/V1_1__schema_since_baseline.sql
+
+ALTER TABLE products ADD COLUMN status ENUM('AVAILABLE','SOLD') NOT NULL DEFAULT 'AVAILABLE';
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX idx_otp_verifications_email ON otp_verifications (email);
+CREATE INDEX idx_otp_verifications_expiry_time ON otp_verifications (expiry_time);
+CREATE INDEX idx_otp_verifications_verified ON otp_verifications (verified);
@@ -0,0 +1,46 @@
+-- H2 (MySQL mode) counterpart of db/migration/mysql/V1__baseline.sql, used by the tests
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    programme VARCHAR(255),
+    branch VARCHAR(255),
+    year INTEGER,
+    semester INTEGER,
+    phone_no VARCHAR(255),
+    profile_image_path VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+);
+
+CREATE TABLE products (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    price NUMERIC(38,2) NOT NULL,
+    image_path VARCHAR(255),
+    seller_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKbgw3lyxhsml3kfqnfr45o0vbj FOREIGN KEY (seller_id) REFERENCES users (id)
+);
+
+CREATE TABLE orders (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    order_date TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FK32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKkp5k52qtiygd8jkag4hayd0qg FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE otp_verifications (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email VARCHAR(255),
+    otp VARCHAR(255),
+    expiry_time TIMESTAMP(6),
+    verified BOOLEAN NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,6 @@
+-- H2 counterpart of db/migration/mysql/V2__query_indexes.sql
+
+CREATE INDEX idx_products_status_id ON products (status, id);
+CREATE INDEX idx_products_seller_status ON products (seller_id, status);
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date);
+CREATE INDEX idx_orders_order_date ON orders (order_date);
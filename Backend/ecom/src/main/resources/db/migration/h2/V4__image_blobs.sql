@@ -0,0 +1,8 @@
+-- Reference counts for content-addressed image blobs (uploads/blobs/ab/cd/<sha-256>)
+
+CREATE TABLE image_blobs (
+    hash VARCHAR(64) NOT NULL,
+    byte_size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    PRIMARY KEY (hash)
+);
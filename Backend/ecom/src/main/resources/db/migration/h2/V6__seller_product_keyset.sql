@@ -0,0 +1,3 @@
+-- Keyset walk over one seller's listings in id order, any status:
+-- WHERE seller_id = ? AND id > ? ORDER BY id (account deletion chunks)
+CREATE INDEX idx_products_seller_id ON products (seller_id, id);
@@ -0,0 +1,3 @@
+-- H2 counterpart of db/migration/mysql/V7__keep_sold_listings.sql
+
+ALTER TABLE products ALTER COLUMN seller_id SET NULL;
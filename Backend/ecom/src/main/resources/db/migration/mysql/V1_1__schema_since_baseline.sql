@@ -0,0 +1,24 @@
+-- Changes the entities made after the schema in V1, which ddl-auto=update never applied
+-- to databases that existed before Flyway. Runs before V2, whose indexes need status.
+
+-- Listing status (sold listings stay for the orders that refer to them) and the
+-- optimistic lock version; existing listings are unsold and start at version 0
+ALTER TABLE products ADD COLUMN status ENUM('AVAILABLE','SOLD') NOT NULL DEFAULT 'AVAILABLE';
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Order ids come from a pooled sequence instead of IDENTITY so checkout inserts batch
+ALTER TABLE orders MODIFY id BIGINT NOT NULL;
+
+-- Hibernate's table-backed sequence for Order ids (allocationSize 50), started past the
+-- IDENTITY ids already in orders. The pooled optimizer hands out next_val - 49 .. next_val
+-- from a fetched value, hence + 50 rather than + 1.
+CREATE TABLE orders_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO orders_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM orders;
+
+-- Lookups and purges of one-time passwords
+CREATE INDEX idx_otp_verifications_email ON otp_verifications (email);
+CREATE INDEX idx_otp_verifications_expiry_time ON otp_verifications (expiry_time);
+CREATE INDEX idx_otp_verifications_verified ON otp_verifications (verified);
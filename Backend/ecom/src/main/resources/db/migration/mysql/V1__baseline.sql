@@ -0,0 +1,47 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Databases that already have it are baselined at this version and skip it.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    programme VARCHAR(255),
+    branch VARCHAR(255),
+    year INTEGER,
+    semester INTEGER,
+    phone_no VARCHAR(255),
+    profile_image_path VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE products (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    price DECIMAL(38,2) NOT NULL,
+    image_path VARCHAR(255),
+    seller_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKbgw3lyxhsml3kfqnfr45o0vbj FOREIGN KEY (seller_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    order_date DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FK32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKkp5k52qtiygd8jkag4hayd0qg FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE otp_verifications (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255),
+    otp VARCHAR(255),
+    expiry_time DATETIME(6),
+    verified BIT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,16 @@
+-- Indexes for the repository queries. InnoDB appends the primary key to every
+-- secondary index, so (status) alone would also order by id; it is spelled out
+-- for readability. orders.product_id is already covered by its foreign key index.
+
+-- Catalog summaries, keyset pages and the export cursor:
+-- WHERE status = 'AVAILABLE' [AND id > ?] ORDER BY id
+CREATE INDEX idx_products_status_id ON products (status, id);
+
+-- Seller listings (findBySellerAndStatus) and findBySeller / deleteAllBySeller via the prefix
+CREATE INDEX idx_products_seller_status ON products (seller_id, status);
+
+-- A buyer's orders, newest first; also serves the user_id foreign key
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date);
+
+-- Sales by date range
+CREATE INDEX idx_orders_order_date ON orders (order_date);
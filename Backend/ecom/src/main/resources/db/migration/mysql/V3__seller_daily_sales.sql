@@ -0,0 +1,17 @@
+-- Per-seller daily sales rollup, incremented by every checkout
+
+CREATE TABLE seller_daily_sales (
+    seller_id BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    order_count BIGINT NOT NULL,
+    revenue DECIMAL(38,2) NOT NULL,
+    PRIMARY KEY (seller_id, sale_date)
+) ENGINE=InnoDB;
+
+-- Orders placed before the rollup existed
+INSERT INTO seller_daily_sales (seller_id, sale_date, order_count, revenue)
+SELECT p.seller_id, CAST(o.order_date AS DATE), COUNT(*), SUM(p.price)
+FROM orders o
+JOIN products p ON p.id = o.product_id
+WHERE o.order_date IS NOT NULL
+GROUP BY p.seller_id, CAST(o.order_date AS DATE);
@@ -0,0 +1,15 @@
+-- Outbox of stored images to release once the transaction that dropped their
+-- reference has committed; drained in batches by ImageDeletionOutbox
+
+CREATE TABLE image_deletions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    owner_type ENUM('PRODUCT','USER') NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+-- Stored name lookups of the orphan reconciler: WHERE image_path IN (...)
+CREATE INDEX idx_products_image_path ON products (image_path);
+CREATE INDEX idx_users_profile_image_path ON users (profile_image_path);
+CREATE INDEX idx_image_deletions_file_name ON image_deletions (file_name);
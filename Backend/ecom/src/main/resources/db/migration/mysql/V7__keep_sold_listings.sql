@@ -0,0 +1,3 @@
+-- Sold listings outlive their seller's account, so other buyers keep their order
+-- history; account deletion sets seller_id to NULL on them instead of deleting them
+ALTER TABLE products MODIFY seller_id BIGINT NULL;
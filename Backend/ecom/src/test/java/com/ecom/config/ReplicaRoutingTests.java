@@ -0,0 +1,121 @@
+package com.ecom.config;
+
+import com.ecom.model.Product;
+import com.ecom.model.User;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import com.ecom.service.SessionTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Primary and replica are two unrelated in-memory databases, so every response
+// shows which one served it. The second replica never answers.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+		"datasource.replicas.enabled=true",
+		"datasource.replicas.urls[0]=" + ReplicaRoutingTests.REPLICA_URL,
+		"datasource.replicas.urls[1]=jdbc:h2:tcp://localhost:1/unreachable",
+		"datasource.replicas.read-your-writes-ms=60000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTests {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE";
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE";
+
+	static {
+		Flyway.configure().dataSource(REPLICA_URL, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+		try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("INSERT INTO users (id, email, password, name) VALUES (1000, 'replica@am.students.amrita.edu', 'x', 'Replica Seller')");
+			statement.execute("INSERT INTO products (id, name, price, seller_id, status, version) VALUES (1000, 'Replica listing', 10, 1000, 'AVAILABLE', 0)");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private SessionTokenService sessionTokenService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void routesReadsByRequestAndWriter() throws Exception {
+		User seller = new User("routing-seller@am.students.amrita.edu", "secret");
+		seller.setName("Primary Seller");
+		seller = userRepository.save(seller);
+		Product product = productRepository.save(new Product("Primary listing", "On the primary only", new BigDecimal("25.00"), seller));
+		String token = sessionTokenService.issue(seller);
+
+		// Anonymous catalog reads rotate over the replicas, skipping the dead one. The paged listing
+		// is used because the full catalog is served from a snapshot built on the primary.
+		for (int i = 0; i < 4; i++) {
+			String catalog = send(get("/api/products?limit=50").build()).body();
+			assertTrue(catalog.contains("Replica listing"), catalog);
+			assertFalse(catalog.contains("Primary listing"), catalog);
+		}
+
+		// Cached responses are filled from the primary
+		HttpResponse<String> detail = send(get("/api/products/" + product.getId()).build());
+		assertEquals(200, detail.statusCode());
+		assertTrue(detail.body().contains("Primary listing"));
+
+		// After their own write, a user's reads stay on the primary
+		HttpResponse<String> created = send(HttpRequest.newBuilder(uri("/api/products"))
+				.header("Authorization", "Bearer " + token)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString("name=Second&description=New&price=5"))
+				.build());
+		assertEquals(201, created.statusCode());
+		String ownCatalog = send(get("/api/products?limit=50").header("Authorization", "Bearer " + token).build()).body();
+		assertTrue(ownCatalog.contains("Primary listing"), ownCatalog);
+		assertTrue(send(get("/api/products?limit=50").build()).body().contains("Replica listing"));
+
+		assertEquals(0, meterRegistry.get("datasource.replica.healthy").tag("replica", "replica-2").gauge().value());
+		assertEquals(1, meterRegistry.get("datasource.replica.healthy").tag("replica", "replica-1").gauge().value());
+	}
+
+	private HttpRequest.Builder get(String path) {
+		return HttpRequest.newBuilder(uri(path)).GET();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private HttpResponse<String> send(HttpRequest request) throws Exception {
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,43 @@
+package com.ecom.config;
+
+import com.ecom.service.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// FileStorageService is an interface; its implementations have to be traced as the file layer
+@SpringBootTest(properties = "tracing.enabled=true")
+@ActiveProfiles("test")
+class TracingAspectTests {
+
+	@Autowired
+	private RequestTracer requestTracer;
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@AfterEach
+	void endTrace() {
+		requestTracer.finish(null, 0);
+	}
+
+	@Test
+	void storageCallsAreRecordedAsFileSpans() {
+		requestTracer.begin();
+
+		fileStorageService.resolveProductImage("missing.jpg");
+
+		List<RequestTrace.Span> spans = requestTracer.current().getSpans();
+		assertFalse(spans.isEmpty());
+		assertEquals("file", spans.get(0).getLayer());
+		assertEquals("DiskFileStorageService.resolveProductImage", spans.get(0).getName());
+		assertEquals(0, spans.stream().filter(span -> span.getLayer().equals("service")).count());
+	}
+}
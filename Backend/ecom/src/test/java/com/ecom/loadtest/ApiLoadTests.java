@@ -0,0 +1,227 @@
+package com.ecom.loadtest;
+
+import com.ecom.model.Product;
+import com.ecom.model.User;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import com.ecom.service.FileStorageService;
+import com.ecom.service.SessionTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the real HTTP endpoints at fixed arrival rates and writes per-endpoint
+// latency percentiles to target/loadtest/. Only runs with `mvn -Ploadtest test`.
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		// Own database and upload directory so cached test contexts are not affected
+		"spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;NON_KEYWORDS=YEAR,VALUE",
+		"file.storage.location=target/loadtest-uploads"
+})
+@ActiveProfiles("test")
+class ApiLoadTests {
+
+	private static final String DEFAULT_RATES = "products=5,product=100,image=100,orders=10,login=20";
+
+	private static final String PASSWORD = "loadtest";
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@Autowired
+	private SessionTokenService sessionTokenService;
+
+	@Test
+	void endpointsUnderOfferedLoad() throws Exception {
+		int userCount = Integer.getInteger("loadtest.users", 200);
+		int productCount = Integer.getInteger("loadtest.products", 2000);
+		int imageCount = Integer.getInteger("loadtest.images", 100);
+		long seed = Long.getLong("loadtest.seed", 42);
+		Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+		Duration measurement = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+		double maxErrorRatio = Double.parseDouble(System.getProperty("loadtest.max-error-ratio", "0.01"));
+		Map<String, Double> rates = parseRates(System.getProperty("loadtest.rates", DEFAULT_RATES));
+
+		List<User> users = seedUsers(userCount);
+		List<Long> catalog = seedProducts(users, productCount, "Catalog");
+		List<Long> withImages = attachImages(catalog.subList(0, Math.min(imageCount, catalog.size())));
+		// Every checkout buys a fresh listing so orders never collide on a sold item
+		long orderCount = (long) Math.ceil(rates.getOrDefault("orders", 0.0) * (warmup.getSeconds() + measurement.getSeconds() + 1));
+		List<Long> forSale = seedProducts(users, (int) orderCount, "Checkout");
+
+		String base = "http://localhost:" + port;
+		Random productRandom = new Random(seed);
+		Random imageRandom = new Random(seed + 1);
+		Random buyerRandom = new Random(seed + 2);
+		Random loginRandom = new Random(seed + 3);
+		int[] nextForSale = {0};
+		List<String> tokens = users.stream().map(sessionTokenService::issue).toList();
+
+		OpenLoadGenerator generator = new OpenLoadGenerator()
+				.endpoint("GET /api/products", rates.getOrDefault("products", 0.0),
+						() -> get(base + "/api/products"))
+				.endpoint("GET /api/products/{id}", rates.getOrDefault("product", 0.0),
+						() -> get(base + "/api/products/" + pick(catalog, productRandom)))
+				.endpoint("GET /api/products/{id}/image", withImages.isEmpty() ? 0 : rates.getOrDefault("image", 0.0),
+						() -> get(base + "/api/products/" + pick(withImages, imageRandom) + "/image?size=card"))
+				.endpoint("POST /api/orders", rates.getOrDefault("orders", 0.0),
+						() -> post(base + "/api/orders", pick(tokens, buyerRandom),
+								"{\"productIds\":[" + forSale.get(nextForSale[0]++ % forSale.size()) + "]}"))
+				.endpoint("POST /api/auth/login", rates.getOrDefault("login", 0.0),
+						() -> post(base + "/api/auth/login", null, "{\"email\":\"" + pick(users, loginRandom).getEmail()
+								+ "\",\"password\":\"" + PASSWORD + "\"}"));
+
+		Map<String, Object> endpoints = generator.run(warmup, measurement);
+
+		Map<String, Object> config = new LinkedHashMap<>();
+		config.put("users", userCount);
+		config.put("products", productCount);
+		config.put("images", withImages.size());
+		config.put("seed", seed);
+		config.put("warmupSeconds", warmup.getSeconds());
+		config.put("durationSeconds", measurement.getSeconds());
+		config.put("rates", rates);
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("timestamp", Instant.now().toString());
+		report.put("javaVersion", System.getProperty("java.version"));
+		report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+		report.put("config", config);
+		report.put("endpoints", endpoints);
+
+		Path reportFile = Path.of(System.getProperty("loadtest.report", "target/loadtest/report.json"));
+		Files.createDirectories(reportFile.toAbsolutePath().getParent());
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+		printSummary(endpoints, reportFile);
+
+		endpoints.forEach((name, result) -> {
+			Map<?, ?> summary = (Map<?, ?>) result;
+			long requests = ((Number) summary.get("requests")).longValue();
+			long errors = ((Number) summary.get("errors")).longValue();
+			assertTrue(requests > 0, name + " completed no requests");
+			assertTrue(errors <= requests * maxErrorRatio, name + " failed " + errors + " of " + requests + " requests");
+		});
+	}
+
+	private List<User> seedUsers(int count) {
+		List<User> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			User user = new User("loaduser" + i + "@am.students.amrita.edu", PASSWORD);
+			user.setName("Load User " + i);
+			users.add(user);
+		}
+		return userRepository.saveAll(users);
+	}
+
+	private List<Long> seedProducts(List<User> sellers, int count, String label) {
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			products.add(new Product(label + " item " + i, "Seeded listing " + i + " for load testing",
+					BigDecimal.valueOf(100 + i % 900), sellers.get(i % sellers.size())));
+		}
+		List<Long> ids = new ArrayList<>(count);
+		for (Product product : productRepository.saveAll(products)) {
+			ids.add(product.getId());
+		}
+		return ids;
+	}
+
+	private List<Long> attachImages(List<Long> productIds) throws Exception {
+		File image = sampleImage();
+		List<Product> products = productRepository.findAllById(productIds);
+		for (Product product : products) {
+			product.setImagePath(fileStorageService.storeProductImage(image));
+		}
+		productRepository.saveAll(products);
+		Files.deleteIfExists(image.toPath());
+		return productIds;
+	}
+
+	// A photo-sized JPEG so image responses exercise the large-body path
+	private static File sampleImage() throws Exception {
+		BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		try {
+			graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, 1600, 1200, Color.DARK_GRAY));
+			graphics.fillRect(0, 0, 1600, 1200);
+		} finally {
+			graphics.dispose();
+		}
+		File file = Files.createTempFile("loadtest", ".jpg").toFile();
+		ImageIO.write(image, "jpeg", file);
+		return file;
+	}
+
+	private static Map<String, Double> parseRates(String spec) {
+		Map<String, Double> rates = new LinkedHashMap<>();
+		for (String entry : spec.split(",")) {
+			String[] parts = entry.trim().split("=");
+			rates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+		}
+		return rates;
+	}
+
+	private static <T> T pick(List<T> items, Random random) {
+		return items.get(random.nextInt(items.size()));
+	}
+
+	private static HttpRequest get(String url) {
+		return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10)).GET().build();
+	}
+
+	private static HttpRequest post(String url, String token, String json) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+				.timeout(Duration.ofSeconds(10))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+		if (token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		return builder.build();
+	}
+
+	private static void printSummary(Map<String, Object> endpoints, Path reportFile) {
+		System.out.printf("%-30s %10s %10s %10s %10s %10s %8s%n", "endpoint", "req/s", "p50 us", "p90 us", "p99 us", "max us", "errors");
+		endpoints.forEach((name, result) -> {
+			Map<?, ?> summary = (Map<?, ?>) result;
+			Map<?, ?> latency = (Map<?, ?>) summary.get("latencyMicros");
+			System.out.printf("%-30s %10.1f %10s %10s %10s %10s %8s%n", name, summary.get("throughput"),
+					latency.get("p50"), latency.get("p90"), latency.get("p99"), latency.get("max"), summary.get("errors"));
+		});
+		System.out.println("Report written to " + reportFile.toAbsolutePath());
+	}
+}
@@ -0,0 +1,176 @@
+package com.ecom.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Open-model load generator: every endpoint gets a pacer that starts requests
+// on a fixed schedule whether or not earlier ones have finished, each on its
+// own virtual thread. Latency is measured from the scheduled start, so a slow
+// server shows up as latency instead of silently lowering the offered rate.
+class OpenLoadGenerator {
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final HttpClient client;
+
+	private final List<Endpoint> endpoints = new ArrayList<>();
+
+	private static class Endpoint {
+		final String name;
+		final double ratePerSecond;
+		final Supplier<HttpRequest> requests;
+		final Histogram latencyMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+		final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+		final LongAdder completed = new LongAdder();
+		final LongAdder errors = new LongAdder();
+
+		Endpoint(String name, double ratePerSecond, Supplier<HttpRequest> requests) {
+			this.name = name;
+			this.ratePerSecond = ratePerSecond;
+			this.requests = requests;
+		}
+	}
+
+	OpenLoadGenerator() {
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+	}
+
+	// The supplier is only called from the endpoint's pacer, so it may keep unsynchronized state
+	OpenLoadGenerator endpoint(String name, double ratePerSecond, Supplier<HttpRequest> requests) {
+		if (ratePerSecond > 0) {
+			endpoints.add(new Endpoint(name, ratePerSecond, requests));
+		}
+		return this;
+	}
+
+	Map<String, Object> run(Duration warmup, Duration measurement) throws InterruptedException {
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		long end = measureFrom + measurement.toNanos();
+
+		try (ExecutorService inFlight = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Thread> pacers = new ArrayList<>();
+			for (Endpoint endpoint : endpoints) {
+				pacers.add(Thread.ofVirtual().name("pacer-" + endpoint.name)
+						.start(() -> pace(endpoint, inFlight, start, measureFrom, end)));
+			}
+			for (Thread pacer : pacers) {
+				pacer.join();
+			}
+			inFlight.shutdown();
+			if (!inFlight.awaitTermination(1, TimeUnit.MINUTES)) {
+				inFlight.shutdownNow();
+			}
+		}
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		for (Endpoint endpoint : endpoints) {
+			report.put(endpoint.name, summarize(endpoint, measurement));
+		}
+		return report;
+	}
+
+	private void pace(Endpoint endpoint, ExecutorService inFlight, long start, long measureFrom, long end) {
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / endpoint.ratePerSecond);
+		for (long sequence = 0; ; sequence++) {
+			long scheduled = start + sequence * intervalNanos;
+			if (scheduled >= end) {
+				return;
+			}
+			long delay;
+			while ((delay = scheduled - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(delay);
+			}
+			HttpRequest request = endpoint.requests.get();
+			boolean recorded = scheduled >= measureFrom;
+			inFlight.execute(() -> send(endpoint, request, scheduled, recorded));
+		}
+	}
+
+	private void send(Endpoint endpoint, HttpRequest request, long scheduled, boolean recorded) {
+		int status;
+		String outcome;
+		try {
+			status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			outcome = String.valueOf(status);
+		} catch (HttpTimeoutException e) {
+			status = -1;
+			outcome = "timeout";
+		} catch (IOException e) {
+			status = -1;
+			outcome = "ioError";
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (!recorded) {
+			return;
+		}
+		endpoint.latencyMicros.recordValue(Math.max(1, (System.nanoTime() - scheduled) / 1_000));
+		endpoint.statusCounts.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+		endpoint.completed.increment();
+		if (status < 200 || status >= 400) {
+			endpoint.errors.increment();
+		}
+	}
+
+	private static Map<String, Object> summarize(Endpoint endpoint, Duration measurement) {
+		Histogram histogram = endpoint.latencyMicros.copy();
+		double seconds = measurement.toNanos() / 1e9;
+
+		Map<String, Object> latency = new LinkedHashMap<>();
+		latency.put("min", histogram.getMinValue());
+		latency.put("mean", Math.round(histogram.getMean()));
+		latency.put("p50", histogram.getValueAtPercentile(50));
+		latency.put("p90", histogram.getValueAtPercentile(90));
+		latency.put("p99", histogram.getValueAtPercentile(99));
+		latency.put("p99.9", histogram.getValueAtPercentile(99.9));
+		latency.put("max", histogram.getMaxValue());
+
+		Map<String, Long> statuses = new TreeMap<>();
+		endpoint.statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("offeredRate", endpoint.ratePerSecond);
+		summary.put("requests", endpoint.completed.sum());
+		summary.put("throughput", endpoint.completed.sum() / seconds);
+		summary.put("errors", endpoint.errors.sum());
+		summary.put("statusCounts", statuses);
+		summary.put("latencyMicros", latency);
+		// Compressed HdrHistogram so runs can be merged or re-plotted later
+		summary.put("histogram", encode(histogram));
+		return summary;
+	}
+
+	private static String encode(Histogram histogram) {
+		ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+		int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+		return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+	}
+}
@@ -0,0 +1,113 @@
+package com.ecom.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportManifestReaderTests {
+
+	private static ImportManifestReader reader(ProductImportService.Format format, String manifest) {
+		return new ImportManifestReader(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)),
+				format, new ObjectMapper());
+	}
+
+	private static List<ImportManifestReader.Row> readAll(ImportManifestReader reader) throws IOException {
+		List<ImportManifestReader.Row> rows = new ArrayList<>();
+		ImportManifestReader.Row row;
+		while ((row = reader.next()) != null) {
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	@Test
+	void readsQuotedCommasNewlinesAndEscapedQuotes() throws IOException {
+		List<ImportManifestReader.Row> rows = readAll(reader(ProductImportService.Format.CSV,
+				"name,description,price,image\r\n"
+				+ "Drafter,\"Barely, used\r\nsecond line\",450.00,a.png\r\n"
+				+ "\"Book \"\"Calculus\"\"\",,99.5,\n"));
+
+		assertEquals(2, rows.size());
+		ImportManifestReader.Row drafter = rows.get(0);
+		assertEquals(1, drafter.number);
+		assertEquals("Drafter", drafter.name);
+		assertEquals("Barely, used\r\nsecond line", drafter.description);
+		assertEquals("450.00", drafter.price);
+		assertEquals("a.png", drafter.image);
+		ImportManifestReader.Row book = rows.get(1);
+		assertEquals(2, book.number);
+		assertEquals("Book \"Calculus\"", book.name);
+		assertNull(book.description);
+		assertNull(book.image);
+	}
+
+	@Test
+	void ignoresAByteOrderMarkAndColumnOrder() throws IOException {
+		List<ImportManifestReader.Row> rows = readAll(reader(ProductImportService.Format.CSV,
+				"﻿Price,Name\n12,Lamp\n"));
+
+		assertEquals(1, rows.size());
+		assertEquals("Lamp", rows.get(0).name);
+		assertEquals("12", rows.get(0).price);
+	}
+
+	@Test
+	void skipsBlankLinesAndReportsFieldCountMismatches() throws IOException {
+		List<ImportManifestReader.Row> rows = readAll(reader(ProductImportService.Format.CSV,
+				"name,price\n\nLamp,12\nMug\n\nPen,5,extra\nCoat,200"));
+
+		assertEquals(4, rows.size());
+		assertNull(rows.get(0).error);
+		assertEquals(2, rows.get(1).number);
+		assertEquals("Expected 2 fields but found 1", rows.get(1).error);
+		assertEquals("Expected 2 fields but found 3", rows.get(2).error);
+		assertEquals(4, rows.get(3).number);
+		assertEquals("Coat", rows.get(3).name);
+	}
+
+	@Test
+	void rejectsAHeaderWithoutNameAndPrice() {
+		ImportManifestReader reader = reader(ProductImportService.Format.CSV, "title,cost\nLamp,12\n");
+
+		assertThrows(IllegalArgumentException.class, reader::readHeader);
+	}
+
+	@Test
+	void stopsAtAnUnterminatedQuote() throws IOException {
+		ImportManifestReader reader = reader(ProductImportService.Format.CSV,
+				"name,price\nLamp,12\n\"Mug,5\nPen,3\n");
+
+		assertEquals("Lamp", reader.next().name);
+		assertEquals(2, reader.nextRowNumber());
+		assertThrows(IllegalArgumentException.class, reader::next);
+	}
+
+	@Test
+	void reportsBadJsonLinesAndKeepsReading() throws IOException {
+		List<ImportManifestReader.Row> rows = readAll(reader(ProductImportService.Format.NDJSON,
+				"{\"name\":\"Lamp\",\"price\":12.5}\n"
+				+ "{bad json\n"
+				+ "\n"
+				+ "[1, 2]\n"
+				+ "{\"name\":\"Mug\",\"price\":\"3\",\"description\":\"blue\",\"image\":null}\n"));
+
+		assertEquals(4, rows.size());
+		assertEquals("12.5", rows.get(0).price);
+		assertEquals(2, rows.get(1).number);
+		assertTrue(rows.get(1).error.startsWith("Not valid JSON"));
+		assertEquals("Expected a JSON object", rows.get(2).error);
+		assertEquals(4, rows.get(3).number);
+		assertEquals("blue", rows.get(3).description);
+		assertNull(rows.get(3).image);
+	}
+}
@@ -0,0 +1,52 @@
+package com.ecom.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryOtpStoreTests {
+
+	private InMemoryOtpStore store;
+
+	@AfterEach
+	void stopTicker() {
+		if (store != null) {
+			store.shutdown();
+		}
+	}
+
+	@Test
+	void verifiesOnlyTheLatestOtp() {
+		store = new InMemoryOtpStore(64, 1000, new SimpleMeterRegistry());
+
+		store.put("student@am.students.amrita.edu", "111111", Duration.ofMinutes(10));
+		store.put("student@am.students.amrita.edu", "222222", Duration.ofMinutes(10));
+
+		assertFalse(store.verify("student@am.students.amrita.edu", "111111"));
+		assertTrue(store.verify("student@am.students.amrita.edu", "222222"));
+		assertFalse(store.verify("other@am.students.amrita.edu", "222222"));
+	}
+
+	@Test
+	void wheelRemovesExpiredEntries() throws InterruptedException {
+		// 8 slots of 10 ms: the 200 ms entry needs more than two revolutions
+		store = new InMemoryOtpStore(8, 10, new SimpleMeterRegistry());
+
+		store.put("short@am.students.amrita.edu", "111111", Duration.ofMillis(30));
+		store.put("long@am.students.amrita.edu", "222222", Duration.ofMillis(200));
+		Thread.sleep(100);
+
+		assertFalse(store.verify("short@am.students.amrita.edu", "111111"));
+		assertTrue(store.verify("long@am.students.amrita.edu", "222222"));
+		assertEquals(1, store.size());
+
+		Thread.sleep(250);
+		assertEquals(0, store.size());
+	}
+}
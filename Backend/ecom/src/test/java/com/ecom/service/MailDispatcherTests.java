@@ -0,0 +1,86 @@
+package com.ecom.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailDispatcherTests {
+
+	private GreenMail smtpServer;
+
+	private MailDispatcher dispatcher;
+
+	@BeforeEach
+	void startServer() {
+		smtpServer = new GreenMail(ServerSetupTest.SMTP);
+		smtpServer.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		if (dispatcher != null) {
+			dispatcher.shutdown();
+		}
+		smtpServer.stop();
+	}
+
+	@Test
+	void deliversQueuedMessagesOverPooledConnections() {
+		dispatcher = new MailDispatcher(mailSender(), 2, 100, 3, 10, new SimpleMeterRegistry());
+
+		for (int i = 0; i < 20; i++) {
+			dispatcher.enqueue(message("student" + i + "@am.students.amrita.edu"));
+		}
+
+		assertTrue(smtpServer.waitForIncomingEmail(10_000, 20));
+		assertEquals(20, smtpServer.getReceivedMessages().length);
+	}
+
+	@Test
+	void rejectsWhenQueueIsFull() {
+		dispatcher = new MailDispatcher(mailSender(), 0, 1, 3, 10, new SimpleMeterRegistry());
+
+		dispatcher.enqueue(message("first@am.students.amrita.edu"));
+
+		assertThrows(MailQueueFullException.class,
+				() -> dispatcher.enqueue(message("second@am.students.amrita.edu")));
+	}
+
+	@Test
+	void retriesUntilServerComesBack() throws InterruptedException {
+		smtpServer.stop();
+		dispatcher = new MailDispatcher(mailSender(), 1, 10, 10, 50, new SimpleMeterRegistry());
+
+		dispatcher.enqueue(message("retry@am.students.amrita.edu"));
+		Thread.sleep(200);
+		smtpServer = new GreenMail(ServerSetupTest.SMTP);
+		smtpServer.start();
+
+		assertTrue(smtpServer.waitForIncomingEmail(20_000, 1));
+	}
+
+	private JavaMailSenderImpl mailSender() {
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("localhost");
+		mailSender.setPort(ServerSetupTest.SMTP.getPort());
+		return mailSender;
+	}
+
+	private static SimpleMailMessage message(String to) {
+		SimpleMailMessage message = new SimpleMailMessage();
+		message.setFrom("noreply@gradgear.com");
+		message.setTo(to);
+		message.setSubject("GradGear - Your OTP for Account Verification");
+		message.setText("Your OTP for GradGear account verification is: 123456");
+		return message;
+	}
+}
@@ -0,0 +1,111 @@
+package com.ecom.service;
+
+import com.ecom.model.Product;
+import com.ecom.model.ProductStatus;
+import com.ecom.model.User;
+import com.ecom.repository.OrderRepository;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Hundreds of buyers check out one listing at once. Besides asserting that exactly one
+// wins, it records contended checkout throughput to target/concurrency/hot-item-checkout.json;
+// the load tests give every checkout its own listing and never measure this case.
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceConcurrencyTests {
+
+	private static final int BUYERS = 300;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Test
+	void exactlyOneBuyerWinsAHotItem() throws Exception {
+		User seller = userRepository.save(new User("hot-seller@am.students.amrita.edu", "secret"));
+		Product product = productRepository.save(new Product("Drafter", "Barely used", new BigDecimal("450.00"), seller));
+
+		List<User> buyers = new ArrayList<>();
+		for (int i = 0; i < BUYERS; i++) {
+			buyers.add(new User("buyer" + i + "@am.students.amrita.edu", "secret"));
+		}
+		buyers = userRepository.saveAll(buyers);
+		long ordersBefore = orderRepository.count();
+
+		AtomicInteger winners = new AtomicInteger();
+		AtomicInteger losers = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(BUYERS);
+		List<Future<?>> attempts = new ArrayList<>();
+		for (User buyer : buyers) {
+			attempts.add(pool.submit(() -> {
+				start.await();
+				try {
+					orderService.checkout(buyer, List.of(product.getId()));
+					winners.incrementAndGet();
+				} catch (ProductAlreadySoldException e) {
+					losers.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+
+		long started = System.nanoTime();
+		start.countDown();
+		for (Future<?> attempt : attempts) {
+			attempt.get(60, TimeUnit.SECONDS);
+		}
+		long elapsedNanos = System.nanoTime() - started;
+		pool.shutdown();
+		writeReport(elapsedNanos);
+
+		assertEquals(1, winners.get());
+		assertEquals(BUYERS - 1, losers.get());
+		assertEquals(ordersBefore + 1, orderRepository.count());
+		assertEquals(ProductStatus.SOLD, productRepository.findById(product.getId()).orElseThrow().getStatus());
+	}
+
+	private static void writeReport(long elapsedNanos) throws Exception {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("timestamp", Instant.now().toString());
+		report.put("javaVersion", System.getProperty("java.version"));
+		report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+		report.put("buyers", BUYERS);
+		report.put("elapsedMs", elapsedNanos / 1_000_000);
+		report.put("checkoutsPerSecond", Math.round(BUYERS / (elapsedNanos / 1e9)));
+
+		Path reportFile = Path.of(System.getProperty("concurrency.report", "target/concurrency/hot-item-checkout.json"));
+		Files.createDirectories(reportFile.toAbsolutePath().getParent());
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+	}
+}
@@ -0,0 +1,162 @@
+package com.ecom.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Random bytes are not images, so no variants are generated and only originals are packed
+class PackedFileStorageServiceTests {
+
+	// Room for five 3 KB records per segment
+	private static final int SEGMENT_SIZE = 16 * 1024;
+
+	@TempDir
+	Path root;
+
+	private final InMemoryReferences references = new InMemoryReferences();
+
+	private ImageVariantService imageVariantService;
+
+	private PackedFileStorageService storage;
+
+	@BeforeEach
+	void open() {
+		imageVariantService = new ImageVariantService(1, 16);
+		storage = newStorage();
+	}
+
+	@AfterEach
+	void close() {
+		storage.close();
+		imageVariantService.shutdown();
+	}
+
+	private PackedFileStorageService newStorage() {
+		return new PackedFileStorageService(root.toString(), SEGMENT_SIZE, 0.5, imageVariantService,
+				references, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void storesDeduplicatesAndDeletesWithTheLastReference() throws IOException {
+		byte[] content = randomBytes(1, 3000);
+		String first = storage.storeProductImage(write("a.bin", content));
+		String second = storage.storeUserImage(write("b.bin", content));
+
+		assertEquals(first, second);
+		assertArrayEquals(content, storage.loadProductImage(first));
+		StoredFile resolved = storage.resolveProductImage(first, ImageVariant.THUMB);
+		assertNull(resolved.getPath());
+		assertEquals(3000, resolved.getLength());
+
+		storage.deleteProductImage(first);
+		assertArrayEquals(content, storage.loadUserImage(second));
+		storage.deleteUserImage(second);
+		assertNull(storage.resolveUserImage(second));
+	}
+
+	@Test
+	void rebuildsTheIndexFromSegmentsOnRestart() throws IOException {
+		String[] names = new String[10];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = storage.storeProductImage(write("image.bin", randomBytes(i, 3000)));
+		}
+		storage.deleteProductImage(names[3]);
+		storage.close();
+		// Ten records do not fit one segment: sealed segments are read from footers, the open one is scanned
+		assertTrue(segmentCount() > 1);
+
+		storage = newStorage();
+		for (int i = 0; i < names.length; i++) {
+			if (i == 3) {
+				assertNull(storage.resolveProductImage(names[i]));
+			} else {
+				assertArrayEquals(randomBytes(i, 3000), storage.loadProductImage(names[i]));
+			}
+		}
+	}
+
+	@Test
+	void compactionMovesLiveRecordsOutOfMostlyDeletedSegments() throws IOException {
+		String[] names = new String[8];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = storage.storeProductImage(write("image.bin", randomBytes(i, 3000)));
+		}
+		// The first segment is sealed with records 0-4; all but one are deleted
+		for (int i = 0; i < 5; i++) {
+			if (i != 2) {
+				storage.deleteProductImage(names[i]);
+			}
+		}
+
+		storage.compact();
+
+		assertFalse(Files.exists(root.resolve("packed").resolve("segment-0000000001.pack")));
+		assertArrayEquals(randomBytes(2, 3000), storage.loadProductImage(names[2]));
+		assertArrayEquals(randomBytes(7, 3000), storage.loadProductImage(names[7]));
+
+		storage.close();
+		storage = newStorage();
+		assertArrayEquals(randomBytes(2, 3000), storage.loadProductImage(names[2]));
+		assertNull(storage.resolveProductImage(names[0]));
+	}
+
+	private File write(String fileName, byte[] content) throws IOException {
+		Path path = root.resolve(fileName);
+		Files.write(path, content);
+		return path.toFile();
+	}
+
+	private static byte[] randomBytes(long seed, int length) {
+		byte[] bytes = new byte[length];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+
+	private long segmentCount() throws IOException {
+		try (Stream<Path> files = Files.list(root.resolve("packed"))) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".pack")).count();
+		}
+	}
+
+	private static class InMemoryReferences implements BlobReferenceStore {
+
+		private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+		@Override
+		public void addReference(String hash, long byteSize) {
+			counts.merge(hash, 1, Integer::sum);
+		}
+
+		@Override
+		public boolean removeReference(String hash) {
+			return counts.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null) == null;
+		}
+
+		@Override
+		public int referenceCount(String hash) {
+			return counts.getOrDefault(hash, 0);
+		}
+
+		@Override
+		public boolean clearReferences(String hash, int expectedCount) {
+			return expectedCount == 0 ? !counts.containsKey(hash) : counts.remove(hash, expectedCount);
+		}
+	}
+}
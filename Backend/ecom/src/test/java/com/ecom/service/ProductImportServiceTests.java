@@ -0,0 +1,92 @@
+package com.ecom.service;
+
+import com.ecom.model.User;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Batches of two rows and at most two listed errors, so both limits are crossed
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:product-import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE",
+		"import.batch-size=2",
+		"import.max-reported-errors=2"
+})
+@ActiveProfiles("test")
+class ProductImportServiceTests {
+
+	@Autowired
+	private ProductImportService productImportService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	private static MockMultipartFile manifest(String content) {
+		return new MockMultipartFile("manifest", "products.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private User seller(String email) {
+		User seller = new User(email, "secret");
+		seller.setName("Importer");
+		return userRepository.save(seller);
+	}
+
+	@Test
+	void numbersFailedRowsAndTruncatesTheErrorList() throws Exception {
+		User seller = seller("import-errors@am.students.amrita.edu");
+
+		ProductImportService.Report report = productImportService.importProducts(seller, manifest(
+				"name,description,price\n"
+				+ "Lamp,desk lamp,12\n"
+				+ ",no name,5\n"
+				+ "\n"
+				+ "Mug,,abc\n"
+				+ "Pen,,1.234\n"
+				+ "Coat,lab coat,200\n"
+				+ "Book,,99.50\n"),
+				ProductImportService.Format.CSV, null);
+
+		assertEquals(3, report.getImported());
+		assertEquals(3, report.getFailed());
+		assertEquals(List.of(2L, 3L), report.getErrors().stream().map(ProductImportService.RowError::getRow).toList());
+		assertEquals("Name is required", report.getErrors().get(0).getMessage());
+		assertTrue(report.isErrorsTruncated());
+		assertNull(report.getFatalError());
+		assertEquals(3, productRepository.findSummariesBySeller(seller.getId()).size());
+	}
+
+	@Test
+	void keepsTheReportWhenTheManifestBreaksOffMidway() throws Exception {
+		User seller = seller("import-fatal@am.students.amrita.edu");
+
+		ProductImportService.Report report = productImportService.importProducts(seller, manifest(
+				"name,price\n"
+				+ "Lamp,12\n"
+				+ "Mug,3\n"
+				+ "Pen,5\n"
+				+ "\"Coat,200\n"
+				+ "Book,99\n"),
+				ProductImportService.Format.CSV, null);
+
+		// The first batch was committed before the broken row; the row read before it still counts
+		assertEquals(3, report.getImported());
+		assertEquals(0, report.getFailed());
+		assertEquals(4, report.getFatalError().getRow());
+		assertFalse(report.isErrorsTruncated());
+		assertEquals(3, productRepository.findSummariesBySeller(seller.getId()).size());
+	}
+}
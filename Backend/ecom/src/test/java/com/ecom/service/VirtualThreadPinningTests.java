@@ -0,0 +1,102 @@
+package com.ecom.service;
+
+import com.ecom.model.Product;
+import com.ecom.model.User;
+import com.ecom.repository.ProductRepository;
+import com.ecom.repository.UserRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the JPA read and checkout paths on more virtual threads than there are
+// pooled connections, so threads park inside Hikari and Hibernate, and fails
+// if JFR reports a carrier thread pinned there. Frames from H2 are ignored:
+// it is the test database only, production runs on Connector/J.
+@SpringBootTest
+@ActiveProfiles("test")
+class VirtualThreadPinningTests {
+
+	private static final int THREADS = 100;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Test
+	void jdbcAndHibernatePathsDoNotPinCarrierThreads() throws Exception {
+		User seller = userRepository.save(new User("pinning-seller@am.students.amrita.edu", "secret"));
+		User buyer = userRepository.save(new User("pinning-buyer@am.students.amrita.edu", "secret"));
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			products.add(new Product("Lab coat " + i, "Size M", new BigDecimal("250.00"), seller));
+		}
+		products = productRepository.saveAll(products);
+
+		List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+		try (RecordingStream recording = new RecordingStream()) {
+			recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+			recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+			recording.startAsync();
+
+			try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				List<Future<?>> tasks = new ArrayList<>();
+				for (Product product : products) {
+					tasks.add(executor.submit(() -> {
+						productService.getAllProductSummaries();
+						productService.getProductById(product.getId());
+						orderService.checkout(buyer, List.of(product.getId()));
+						return null;
+					}));
+				}
+				for (Future<?> task : tasks) {
+					task.get(60, TimeUnit.SECONDS);
+				}
+			}
+			recording.stop();
+		}
+
+		List<String> offending = pinned.stream()
+				.filter(event -> event.getStackTrace() != null)
+				.filter(event -> event.getStackTrace().getFrames().stream()
+						.noneMatch(frame -> frame.getMethod().getType().getName().startsWith("org.h2.")))
+				.map(VirtualThreadPinningTests::describe)
+				.collect(Collectors.toList());
+		assertTrue(offending.isEmpty(), "Carrier threads pinned in:\n" + String.join("\n\n", offending));
+	}
+
+	private static String describe(RecordedEvent event) {
+		return event.getStackTrace().getFrames().stream()
+				.limit(15)
+				.map(VirtualThreadPinningTests::describe)
+				.collect(Collectors.joining("\n  at ", "pinned for " + event.getDuration().toMillis() + " ms\n  at ", ""));
+	}
+
+	private static String describe(RecordedFrame frame) {
+		return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+	}
+}
@@ -158,7 +158,7 @@ const Cart = () => {
                     <CardMedia
                       component="img"
                       sx={{ width: 120, height: 120, objectFit: 'cover', borderRadius: 2, mb: 1, boxShadow: 1 }}
-                      image={item.hasImage ? `http://localhost:8080/api/products/${item.id}/image` : 'https://via.placeholder.com/120x120?text=No+Image'}
+                      image={item.hasImage ? `http://localhost:8080/api/products/${item.id}/image?size=thumb` : 'https://via.placeholder.com/120x120?text=No+Image'}
                       alt={item.name}
                     />
                     <CardContent sx={{ flex: '1 0 auto', width: '100%', p: 0 }}>
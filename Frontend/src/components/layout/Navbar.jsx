@@ -1,5 +1,6 @@
 import { useState, useEffect } from 'react';
 import { Link as RouterLink, useNavigate } from 'react-router-dom';
+import axios from 'axios';
 import {
   AppBar,
   Box,
@@ -76,6 +77,8 @@ const Navbar = () => {
   };
   
   const handleLogout = () => {
+    // Revoke the session token server-side; the local copy is dropped either way
+    axios.post('http://localhost:8080/api/auth/logout').catch(() => {});
     localStorage.removeItem('user');
     navigate('/login');
   };
@@ -217,7 +220,7 @@ const Navbar = () => {
             <Box sx={{ flexGrow: 0 }}>
               <Tooltip title="Open settings">
                 <IconButton onClick={handleOpenUserMenu} sx={{ p: 0 }}>
-                  <Avatar alt={userInfo.name || "User"} src={userInfo.id ? `http://localhost:8080/api/users/${userInfo.id}/profile-image` : undefined}>
+                  <Avatar alt={userInfo.name || "User"} src={userInfo.id ? `http://localhost:8080/api/users/${userInfo.id}/profile-image?size=thumb` : undefined}>
                     {!userInfo.id && <AccountCircleIcon />}
                   </Avatar>
                 </IconButton>
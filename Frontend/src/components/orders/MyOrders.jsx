@@ -1,18 +1,70 @@
-import { useState } from 'react';
+import { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
+import axios from 'axios';
 import {
   Box,
   Button,
   Container,
   Typography,
   Paper,
-  Alert
+  Alert,
+  CircularProgress,
+  List,
+  ListItem,
+  ListItemText,
+  Divider
 } from '@mui/material';
 import ArrowBackIcon from '@mui/icons-material/ArrowBack';
 
 const MyOrders = () => {
+  const [orders, setOrders] = useState([]);
+  const [nextPage, setNextPage] = useState(null);
+  const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [error, setError] = useState('');
   const navigate = useNavigate();
 
+  const userInfo = JSON.parse(localStorage.getItem('user') || '{}');
+
+  const fetchOrders = async (page) => {
+    const response = await axios.get(`http://localhost:8080/api/orders/user/${userInfo.id}`, {
+      params: { page }
+    });
+    setOrders(previous => (page === 0 ? response.data.items : [...previous, ...response.data.items]));
+    setNextPage(response.data.next);
+  };
+
+  useEffect(() => {
+    if (!userInfo.id) {
+      navigate('/login');
+      return;
+    }
+
+    fetchOrders(0)
+      .catch(() => setError('Failed to load your orders'))
+      .finally(() => setLoading(false));
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [navigate]);
+
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    try {
+      await fetchOrders(nextPage);
+    } catch (err) {
+      setError('Failed to load more orders');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  if (loading) {
+    return (
+      <Box sx={{ display: 'flex', justifyContent: 'center', alignItems: 'center', height: '100vh' }}>
+        <CircularProgress />
+      </Box>
+    );
+  }
+
   return (
     <Container maxWidth="lg" sx={{ mt: 4, mb: 4 }}>
       <Button
@@ -25,17 +77,54 @@ const MyOrders = () => {
       <Typography variant="h4" component="h1" gutterBottom>
         My Orders
       </Typography>
-      
-      <Paper elevation={3} sx={{ p: 4, borderRadius: 3, textAlign: 'center', mt: 4 }}>
-        <Alert severity="info" sx={{ mb: 2 }}>
-          Order history feature is currently under development.
+
+      {error && (
+        <Alert severity="error" sx={{ mb: 4 }}>
+          {error}
         </Alert>
-        <Typography variant="body1">
-          Check back later for a detailed order history.
-        </Typography>
-      </Paper>
+      )}
+
+      {orders.length === 0 ? (
+        <Paper elevation={3} sx={{ p: 4, borderRadius: 3, textAlign: 'center', mt: 4 }}>
+          <Typography variant="body1">
+            You haven't placed any orders yet.
+          </Typography>
+        </Paper>
+      ) : (
+        <Paper elevation={3} sx={{ borderRadius: 3, mt: 4 }}>
+          <List>
+            {orders.map((order, index) => (
+              <Box key={order.id}>
+                {index > 0 && <Divider component="li" />}
+                <ListItem
+                  button
+                  onClick={() => navigate(`/product/${order.productId}`)}
+                  secondaryAction={
+                    <Typography variant="h6" color="primary">
+                      ${order.price}
+                    </Typography>
+                  }
+                >
+                  <ListItemText
+                    primary={order.productName}
+                    secondary={`Sold by ${order.sellerName ?? 'a deleted account'} · ${new Date(order.orderDate).toLocaleString()}`}
+                  />
+                </ListItem>
+              </Box>
+            ))}
+          </List>
+        </Paper>
+      )}
+
+      {nextPage !== null && (
+        <Box sx={{ display: 'flex', justifyContent: 'center', mt: 3 }}>
+          <Button variant="outlined" onClick={handleLoadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </Button>
+        </Box>
+      )}
     </Container>
   );
 };
 
-export default MyOrders; 
\ No newline at end of file
+export default MyOrders;
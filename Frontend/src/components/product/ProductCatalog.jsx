@@ -202,7 +202,7 @@ const ProductCatalog = () => {
                 <CardMedia
                   component="img"
                   height="200"
-                  image={product.hasImage ? `http://localhost:8080/api/products/${product.id}/image` : 'https://via.placeholder.com/300x200?text=No+Image'}
+                  image={product.hasImage ? `http://localhost:8080/api/products/${product.id}/image?size=card` : 'https://via.placeholder.com/300x200?text=No+Image'}
                   alt={product.name}
                   sx={{ objectFit: 'cover', borderTopLeftRadius: 12, borderTopRightRadius: 12 }}
                 />
@@ -179,7 +179,7 @@ const ProductDetails = () => {
                   background: '#fafafa',
                   p: 1
                 }}
-                src={product.hasImage ? `http://localhost:8080/api/products/${product.id}/image` : 'https://via.placeholder.com/600x400?text=No+Image'}
+                src={product.hasImage ? `http://localhost:8080/api/products/${product.id}/image?size=full` : 'https://via.placeholder.com/600x400?text=No+Image'}
                 alt={product.name}
               />
             </Box>
@@ -40,6 +40,7 @@ const UserProfile = () => {
   const [success, setSuccess] = useState('');
   const [deleteDialogOpen, setDeleteDialogOpen] = useState(false);
   const [deleteLoading, setDeleteLoading] = useState(false);
+  const [deleteProgress, setDeleteProgress] = useState(null);
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -126,7 +127,18 @@ const UserProfile = () => {
     setDeleteLoading(true);
     try {
       const userInfo = JSON.parse(localStorage.getItem('user'));
-      await axios.delete(`http://localhost:8080/api/users/${userInfo.id}`);
+      const response = await axios.delete(`http://localhost:8080/api/users/${userInfo.id}`);
+      
+      // Large accounts are deleted in the background; poll until the job is done
+      let job = response.data;
+      while (job.status === 'RUNNING') {
+        setDeleteProgress(job.productsTotal > 0 ? Math.round(((job.productsDeleted + job.productsKept) * 100) / job.productsTotal) : null);
+        await new Promise(resolve => setTimeout(resolve, 1000));
+        job = (await axios.get(`http://localhost:8080/api/users/deletions/${job.jobId}`)).data;
+      }
+      if (job.status === 'FAILED') {
+        throw new Error(job.error);
+      }
       
       // Clear user data from localStorage
       localStorage.removeItem('user');
@@ -137,6 +149,7 @@ const UserProfile = () => {
       setError('Failed to delete account: ' + (err.response?.data?.message || err.message));
       setDeleteDialogOpen(false);
       setDeleteLoading(false);
+      setDeleteProgress(null);
     }
   };
   
@@ -338,7 +351,7 @@ const UserProfile = () => {
             disabled={deleteLoading}
             startIcon={deleteLoading ? <CircularProgress size={20} /> : <DeleteIcon />}
           >
-            {deleteLoading ? "Deleting..." : "Delete Account"}
+            {deleteLoading ? (deleteProgress !== null ? `Deleting... ${deleteProgress}%` : "Deleting...") : "Delete Account"}
           </Button>
         </DialogActions>
       </Dialog>
@@ -2,6 +2,16 @@ import { StrictMode } from 'react'
 import { createRoot } from 'react-dom/client'
 import './index.css'
 import App from './App.jsx'
+import axios from 'axios'
+
+// Send the session token issued at login with every API call
+axios.interceptors.request.use((config) => {
+  const user = JSON.parse(localStorage.getItem('user') || 'null')
+  if (user?.token) {
+    config.headers.Authorization = `Bearer ${user.token}`
+  }
+  return config
+})
 
 createRoot(document.getElementById('root')).render(
   <StrictMode>